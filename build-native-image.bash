@@ -1,10 +1,12 @@
 #!/bin/bash
 
-export OUTPUT_JAR_PATH="target/schema-snowflake-converter-0.0.1-SNAPSHOT.jar"
+# Optional slim profile, e.g. ./build-native-image.bash without-protobuf
+export SLIM_PROFILE="${1:-}"
+export OUTPUT_JAR_PATH="target/schema-snowflake-converter-0.0.1-SNAPSHOT${SLIM_PROFILE:+-${SLIM_PROFILE}}.jar"
 export DOCKER_IMAGE_TAG="22.0.0.2-java11"
 
 echo "Building jar"
-mvn clean package -DskipTests
+mvn clean package -DskipTests ${SLIM_PROFILE:+-P${SLIM_PROFILE}}
 echo "Sleeping for 2 seconds to allow filesystem to settle"
 sleep 2
 
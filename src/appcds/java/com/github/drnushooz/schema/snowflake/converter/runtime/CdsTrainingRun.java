@@ -0,0 +1,109 @@
+package com.github.drnushooz.schema.snowflake.converter.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.LambdaRequestHandler;
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.loadtest.FakeLambdaRuntimeApi;
+import com.github.drnushooz.schema.snowflake.converter.loadtest.FakeLambdaRuntimeApi.InvocationResult;
+import com.github.drnushooz.schema.snowflake.converter.loadtest.StubSchemaRegistry;
+import com.github.drnushooz.schema.snowflake.converter.logging.LogBuffers;
+import com.github.drnushooz.schema.snowflake.converter.registry.WireFormat;
+import com.google.common.collect.ImmutableMap;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Representative workload for training the AppCDS archive of the appcds profile, which is the only build that compiles it. Runs
+ * CustomLambdaRuntime against the load test's fake Lambda Runtime API and stub schema registry, so the runtime's /next and
+ * /response round trips, the handler, every schema format and the registry client all load their classes the way a deployed
+ * function does. Also logs JVM startup and first request latency, so running it with and without the archive shows the
+ * difference.
+ */
+public class CdsTrainingRun {
+
+    private static final Logger logger = LoggerFactory.getLogger(CdsTrainingRun.class);
+    private static final long TRAINING_TIMEOUT_MILLIS = 30000;
+    private static final String REGISTRY_SUBJECT = "snack-value";
+    private static final String AVRO_SCHEMA = "{\"type\": \"record\", \"name\": \"snack\", \"fields\": ["
+        + "{\"name\": \"name\", \"type\": \"string\"}, "
+        + "{\"name\": \"calories\", \"type\": [\"null\", \"float\"], \"default\": null}, "
+        + "{\"name\": \"expires\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-millis\"}}]}";
+    private static final String JSON_SCHEMA = "{\"title\": \"Snack\", \"type\": \"object\", \"properties\": {"
+        + "\"name\": {\"type\": \"string\", \"maxLength\": 64}, "
+        + "\"calories\": {\"type\": \"number\"}}}";
+    private static final String PROTOBUF_SCHEMA = "message Snack {\n"
+        + "  required string name = 1;\n"
+        + "  optional float calories = 2;\n"
+        + "  repeated string tags = 3;\n"
+        + "}";
+
+    public static void main(String[] args) throws Exception {
+        long jvmUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        try (FakeLambdaRuntimeApi runtimeApi = new FakeLambdaRuntimeApi(TRAINING_TIMEOUT_MILLIS);
+            StubSchemaRegistry schemaRegistry = new StubSchemaRegistry()) {
+            int schemaId = schemaRegistry.register(REGISTRY_SUBJECT, "AVRO", AVRO_SCHEMA);
+            // Has to happen before anything loads ConverterConfiguration, which reads its settings once
+            System.setProperty("AWS_LAMBDA_RUNTIME_API", runtimeApi.getAddress());
+            System.setProperty("_HANDLER", LambdaRequestHandler.class.getName() + "::handleRequest");
+            System.setProperty(ConverterConfiguration.SCHEMA_REGISTRY_URL_KEY, schemaRegistry.getUrl());
+
+            // Runs until the process exits, polling /next for more after the last training request
+            Thread runtimeThread = new Thread(() -> {
+                try {
+                    CustomLambdaRuntime.main(new String[0]);
+                } catch (Exception e) {
+                    logger.error("Runtime failed during training", e);
+                }
+            }, "cds-training-runtime");
+            runtimeThread.setDaemon(true);
+            runtimeThread.start();
+
+            StringBuilder report = new StringBuilder(String.format("JVM startup: %d ms", jvmUptimeMillis));
+            ObjectMapper objectMapper = SingletonObjectMapper.getInstance();
+            for (Entry<String, Map<String, String>> trainingRequest : trainingRequests(schemaId).entrySet()) {
+                // One at a time, so that each latency is that of the first request of its kind
+                InvocationResult result = runtimeApi.invoke(objectMapper.writeValueAsString(trainingRequest.getValue()))
+                    .get(TRAINING_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                int statusCode = objectMapper.readTree(result.getBody()).path("statusCode").asInt();
+                if (result.isError() || statusCode != 200) {
+                    throw new IllegalStateException(
+                        String.format("Training request %s failed: %s", trainingRequest.getKey(), result.getBody()));
+                }
+                report.append(String.format(", first %s: %d ms", trainingRequest.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(result.getServiceTimeNanos())));
+            }
+            report.append(String.format(", total: %d ms", ManagementFactory.getRuntimeMXBean().getUptime()));
+            logger.info(report.toString());
+            LogBuffers.flush(ConverterConfiguration.getLogFlushTimeoutMillis());
+        }
+    }
+
+    private static Map<String, Map<String, String>> trainingRequests(int schemaId) {
+        ByteBuffer message = ByteBuffer.allocate(WireFormat.HEADER_SIZE + 1).put(WireFormat.MAGIC_BYTE).putInt(schemaId);
+        Map<String, Map<String, String>> trainingRequests = new LinkedHashMap<>();
+        trainingRequests.put("POST /fromavro", post("/fromavro", AVRO_SCHEMA));
+        trainingRequests.put("POST /fromjson", post("/fromjson", JSON_SCHEMA));
+        trainingRequests.put("POST /fromprotobuf", post("/fromprotobuf", PROTOBUF_SCHEMA));
+        trainingRequests.put("GET /fromregistry/<subject>", get("/fromregistry/" + REGISTRY_SUBJECT));
+        trainingRequests.put("GET /fromregistry/<subject>/<version>", get("/fromregistry/" + REGISTRY_SUBJECT + "/1"));
+        trainingRequests.put("GET /fromschemaid/<id>", get("/fromschemaid/" + schemaId));
+        trainingRequests.put("POST /frommessage", post("/frommessage", Base64.getEncoder().encodeToString(message.array())));
+        return trainingRequests;
+    }
+
+    private static Map<String, String> get(String path) {
+        return ImmutableMap.of("httpMethod", "GET", "path", path);
+    }
+
+    private static Map<String, String> post(String path, String body) {
+        return ImmutableMap.of("httpMethod", "POST", "path", path, "body", body);
+    }
+}
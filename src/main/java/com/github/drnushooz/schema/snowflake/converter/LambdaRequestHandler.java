@@ -4,15 +4,32 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.drnushooz.schema.snowflake.converter.core.TableDefinitionGenerator;
+import com.github.drnushooz.schema.snowflake.converter.admission.AdmissionControl;
+import com.github.drnushooz.schema.snowflake.converter.admission.Bulkhead;
+import com.github.drnushooz.schema.snowflake.converter.admission.BulkheadFullException;
+import com.github.drnushooz.schema.snowflake.converter.admission.Deadline;
+import com.github.drnushooz.schema.snowflake.converter.admission.DeadlineExceededException;
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConversionException;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverters;
+import com.github.drnushooz.schema.snowflake.converter.http.ResponseCaching;
 import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.logging.LogPayloads;
 import com.github.drnushooz.schema.snowflake.converter.registry.RegistryClient;
+import com.github.drnushooz.schema.snowflake.converter.registry.WireFormat;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
@@ -36,7 +53,8 @@ public class LambdaRequestHandler implements RequestHandler<APIGatewayProxyReque
         ImmutableList<String> pathComponents =
             ImmutableList.copyOf(Stream.of(requestPath.split("/")).filter(t -> !t.isBlank()).collect(Collectors.toList()));
         String requestEntity = pathComponents.get(0);
-        logger.info("Received event {} {}", httpMethod, requestPath);
+        Deadline deadline = Deadline.fromContext(context, ConverterConfiguration.getDeadlineReserveMillis());
+        logger.info("Received event {} {} with {}", httpMethod, requestPath, deadline);
 
         Map<String, String> headers = ImmutableMap.of("Content-Type", "application/json");
         APIGatewayProxyResponseEvent responseEvent = new APIGatewayProxyResponseEvent();
@@ -44,38 +62,65 @@ public class LambdaRequestHandler implements RequestHandler<APIGatewayProxyReque
         ResponseBody responseBody;
         switch (httpMethod) {
             case "GET":
-                if (requestEntity.equalsIgnoreCase("fromregistry")) {
+                if ((requestEntity.equalsIgnoreCase("fromregistry") || requestEntity.equalsIgnoreCase("fromschemaid"))
+                    && !ConverterConfiguration.isSchemaRegistryEnabled()) {
+                    registryNotConfigured(responseEvent, httpMethod, requestPath);
+                } else if (requestEntity.equalsIgnoreCase("fromregistry")) {
                     String subjectName;
                     int version;
                     switch (pathComponents.size()) {
                         case 2:
                             subjectName = pathComponents.get(1);
                             try {
-                                Schema schemaFromRegistry = Objects.requireNonNull(RegistryClient.getSchemaFromRegistry(subjectName));
-                                String tableDefinition = TableDefinitionGenerator.generateFromRegistry(schemaFromRegistry);
-                                responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
-                                responseEvent.withStatusCode(200).withBody(objectMapper.writeValueAsString(responseBody));
+                                Schema schemaFromRegistry =
+                                    Objects.requireNonNull(RegistryClient.getSchemaFromRegistry(subjectName, null, deadline));
+                                // The latest version moves on, so caches have to come back after a short while
+                                String etag = ResponseCaching.etag(schemaFromRegistry, ConverterConfiguration.getUnionStrategy());
+                                String cacheControl = ResponseCaching.cacheControl(ConverterConfiguration.getLatestSchemaMaxAgeSeconds());
+                                if (!notModified(responseEvent, inputEvent, etag, cacheControl)) {
+                                    String tableDefinition =
+                                        convert(schemaFromRegistry.getSchemaType(), schemaFromRegistry.getSchema(), deadline);
+                                    responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
+                                    cacheable(responseEvent, inputEvent, responseBody, etag, cacheControl);
+                                }
+                            } catch (BulkheadFullException e) {
+                                shed(responseEvent, e, httpMethod, requestPath);
+                            } catch (DeadlineExceededException e) {
+                                timedOut(responseEvent, e, httpMethod, requestPath);
                             } catch (Exception e) {
-                                logger.error("Exception while trying to pull schema for subject: " + subjectName, e);
-                                responseBody = new ResponseBody(httpMethod, requestPath, e.getMessage());
-                                responseEvent.withStatusCode(404).withBody(objectMapper.writeValueAsString(responseBody));
+                                registryFailure(responseEvent, e, httpMethod, requestPath, "subject " + subjectName);
                             }
                             break;
 
                         case 3:
                             subjectName = pathComponents.get(1);
-                            version = Integer.parseInt(pathComponents.get(2));
+                            Optional<Integer> versionOpt = parseInt(pathComponents.get(2));
+                            if (versionOpt.isEmpty()) {
+                                responseBody = new ResponseBody(httpMethod, requestPath, "Version must be an integer");
+                                responseEvent.withStatusCode(400).withBody(objectMapper.writeValueAsString(responseBody));
+                                break;
+                            }
+                            version = versionOpt.get();
                             try {
                                 Schema schemaFromRegistry =
-                                    Objects.requireNonNull(RegistryClient.getSchemaFromRegistry(subjectName, version));
-                                String tableDefinition = TableDefinitionGenerator.generateFromRegistry(schemaFromRegistry);
-                                responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
-                                responseEvent.withStatusCode(200).withBody(objectMapper.writeValueAsString(responseBody));
+                                    Objects.requireNonNull(RegistryClient.getSchemaFromRegistry(subjectName, version, deadline));
+                                String etag = ResponseCaching.etag(schemaFromRegistry, ConverterConfiguration.getUnionStrategy());
+                                // A version can be soft deleted and registered again with another schema, only ids are immutable
+                                String cacheControl =
+                                    ResponseCaching.cacheControl(ConverterConfiguration.getVersionedSchemaMaxAgeSeconds());
+                                if (!notModified(responseEvent, inputEvent, etag, cacheControl)) {
+                                    String tableDefinition =
+                                        convert(schemaFromRegistry.getSchemaType(), schemaFromRegistry.getSchema(), deadline);
+                                    responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
+                                    cacheable(responseEvent, inputEvent, responseBody, etag, cacheControl);
+                                }
+                            } catch (BulkheadFullException e) {
+                                shed(responseEvent, e, httpMethod, requestPath);
+                            } catch (DeadlineExceededException e) {
+                                timedOut(responseEvent, e, httpMethod, requestPath);
                             } catch (Exception e) {
-                                logger.error("Exception while trying to pull schema for subject: " + subjectName + "version: " + version,
-                                    e);
-                                responseBody = new ResponseBody(httpMethod, requestPath, e.getMessage());
-                                responseEvent.withStatusCode(404).withBody(objectMapper.writeValueAsString(responseBody));
+                                registryFailure(responseEvent, e, httpMethod, requestPath,
+                                    String.format("subject %s version %d", subjectName, version));
                             }
                             break;
 
@@ -83,34 +128,74 @@ public class LambdaRequestHandler implements RequestHandler<APIGatewayProxyReque
                             responseBody = new ResponseBody(httpMethod, requestPath, "Could not understand path parameters");
                             responseEvent.withStatusCode(400).withBody(objectMapper.writeValueAsString(responseBody));
                     }
+                } else if (requestEntity.equalsIgnoreCase("fromschemaid")) {
+                    // A route of its own, below /fromregistry a literal id segment would shadow a subject named id
+                    Optional<Integer> schemaIdOpt = pathComponents.size() == 2 ? parseInt(pathComponents.get(1)) : Optional.empty();
+                    if (schemaIdOpt.isEmpty()) {
+                        responseBody = new ResponseBody(httpMethod, requestPath, "Schema id must be an integer");
+                        responseEvent.withStatusCode(400).withBody(objectMapper.writeValueAsString(responseBody));
+                        break;
+                    }
+                    int schemaId = schemaIdOpt.get();
+                    try {
+                        // Revalidating a schema id needs neither the registry nor a conversion
+                        String etag = ResponseCaching.etag(schemaId, ConverterConfiguration.getUnionStrategy());
+                        String cacheControl = ResponseCaching.IMMUTABLE_CACHE_CONTROL;
+                        if (!notModified(responseEvent, inputEvent, etag, cacheControl)) {
+                            Schema schemaFromRegistry = Objects.requireNonNull(RegistryClient.getSchemaById(schemaId, deadline));
+                            String tableDefinition = convert(schemaFromRegistry.getSchemaType(), schemaFromRegistry.getSchema(), deadline);
+                            responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
+                            cacheable(responseEvent, inputEvent, responseBody, etag, cacheControl);
+                        }
+                    } catch (BulkheadFullException e) {
+                        shed(responseEvent, e, httpMethod, requestPath);
+                    } catch (DeadlineExceededException e) {
+                        timedOut(responseEvent, e, httpMethod, requestPath);
+                    } catch (Exception e) {
+                        registryFailure(responseEvent, e, httpMethod, requestPath, "schema id " + schemaId);
+                    }
                 }
                 break;
 
             case "POST":
+                if (AdmissionControl.isBodyTooLarge(inputEvent.getBody())) {
+                    responseBody = new ResponseBody(httpMethod, requestPath,
+                        String.format("Request body exceeds %d characters", ConverterConfiguration.getMaxRequestBodySize()));
+                    responseEvent.withStatusCode(413).withBody(objectMapper.writeValueAsString(responseBody));
+                    break;
+                }
+
                 StringBuilder schemaFromRequest = new StringBuilder();
                 try {
                     schemaFromRequest.append(StringEscapeUtils.unescapeJson(inputEvent.getBody()));
+                    String schema = schemaFromRequest.toString();
                     if (requestEntity.equalsIgnoreCase("fromavro")) {
-                        String tableDefinition = TableDefinitionGenerator.generateFromAvro(schemaFromRequest.toString());
+                        String tableDefinition = convert("avro", schema, deadline);
                         responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
                         responseEvent.withStatusCode(200).withBody(objectMapper.writeValueAsString(responseBody));
                     } else if (requestEntity.equalsIgnoreCase("fromjson")) {
-                        String tableDefinition = TableDefinitionGenerator.generateFromJSON(schemaFromRequest.toString());
+                        String tableDefinition = convert("json", schema, deadline);
                         responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
                         responseEvent.withStatusCode(200).withBody(objectMapper.writeValueAsString(responseBody));
                     } else if (requestEntity.equalsIgnoreCase("fromprotobuf")) {
-                        String tableDefinition = TableDefinitionGenerator.generateFromProtobuf(schemaFromRequest.toString());
+                        String tableDefinition = convert("protobuf", schema, deadline);
                         responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
                         responseEvent.withStatusCode(200).withBody(objectMapper.writeValueAsString(responseBody));
+                    } else if (requestEntity.equalsIgnoreCase("frommessage")) {
+                        fromMessage(responseEvent, inputEvent, deadline);
                     } else {
                         responseBody = new ResponseBody(httpMethod, requestPath, "Could not understand path parameters");
                         responseEvent.withStatusCode(400).withBody(objectMapper.writeValueAsString(responseBody));
                     }
+                } catch (BulkheadFullException e) {
+                    shed(responseEvent, e, httpMethod, requestPath);
+                } catch (DeadlineExceededException e) {
+                    timedOut(responseEvent, e, httpMethod, requestPath);
                 } catch (Exception e) {
                     StringBuilder logMessageBuilder = new StringBuilder();
                     logMessageBuilder.append("Exception while trying to process ").append(httpMethod).append(" ").append(requestPath);
                     if (schemaFromRequest.length() > 0) {
-                        logMessageBuilder.append(" ").append(schemaFromRequest);
+                        logMessageBuilder.append(" ").append(LogPayloads.summarize(schemaFromRequest));
                     }
                     logger.error(logMessageBuilder.toString(), e);
                     responseBody = new ResponseBody(httpMethod, requestPath, "Exception trying to parse schema. " + e.getMessage());
@@ -125,6 +210,149 @@ public class LambdaRequestHandler implements RequestHandler<APIGatewayProxyReque
         return responseEvent;
     }
 
+    /**
+     * Convert a schema with the converter for its type while holding a permit of the bulkhead for that type. Converters are CPU
+     * bound and ignore interrupts, so the conversion runs on the handler thread: it is not started once the deadline has passed,
+     * and finishing after it gives a 504 instead of a response Lambda may no longer accept.
+     */
+    private static String convert(String schemaType, String schema, Deadline deadline) throws Exception {
+        SchemaConverter schemaConverter = SchemaConverters.forSchemaType(schemaType);
+        String work = String.format("converting %s schema", schemaType.toLowerCase());
+        try (Bulkhead.Permit permit = AdmissionControl.forConversion(schemaType).acquire(deadline)) {
+            deadline.check(work);
+            String tableDefinition = schemaConverter.generate(schema, ConverterConfiguration.getUnionStrategy());
+            deadline.check(work);
+            return tableDefinition;
+        }
+    }
+
+    /**
+     * Convert the schema a base64 encoded Kafka message in the Confluent wire format was written with. Only a message without a
+     * valid wire format header is the client's fault; the schema lookup and its conversion fail like those of the GET routes.
+     */
+    private static void fromMessage(APIGatewayProxyResponseEvent responseEvent, APIGatewayProxyRequestEvent inputEvent,
+        Deadline deadline) throws JsonProcessingException {
+        String httpMethod = inputEvent.getHttpMethod();
+        String requestPath = inputEvent.getPath();
+        if (!ConverterConfiguration.isSchemaRegistryEnabled()) {
+            registryNotConfigured(responseEvent, httpMethod, requestPath);
+            return;
+        }
+
+        int schemaId;
+        try {
+            schemaId = WireFormat.extractSchemaId(inputEvent.getBody());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejecting {} {}: {}", httpMethod, requestPath, e.getMessage());
+            ResponseBody responseBody = new ResponseBody(httpMethod, requestPath, "Not a wire format message. " + e.getMessage());
+            responseEvent.withStatusCode(400).withBody(SingletonObjectMapper.getInstance().writeValueAsString(responseBody));
+            return;
+        }
+
+        try {
+            Schema schemaFromRegistry = Objects.requireNonNull(RegistryClient.getSchemaById(schemaId, deadline));
+            String tableDefinition = convert(schemaFromRegistry.getSchemaType(), schemaFromRegistry.getSchema(), deadline);
+            ResponseBody responseBody = new ResponseBody(httpMethod, requestPath, tableDefinition);
+            responseEvent.withStatusCode(200).withBody(SingletonObjectMapper.getInstance().writeValueAsString(responseBody));
+        } catch (BulkheadFullException e) {
+            shed(responseEvent, e, httpMethod, requestPath);
+        } catch (DeadlineExceededException e) {
+            timedOut(responseEvent, e, httpMethod, requestPath);
+        } catch (Exception e) {
+            registryFailure(responseEvent, e, httpMethod, requestPath, "schema id " + schemaId);
+        }
+    }
+
+    /**
+     * Answer a failed lookup or conversion of a registry schema. The client only named the schema, so apart from an unknown
+     * subject, version or id the failure is the registry's or ours: 502 when the registry failed or could not be reached, 422
+     * when the registered schema cannot be converted and 500 for anything else.
+     */
+    private static void registryFailure(APIGatewayProxyResponseEvent responseEvent, Exception e, String httpMethod,
+        String requestPath, String lookup) throws JsonProcessingException {
+        int statusCode;
+        if (e instanceof RestClientException && ((RestClientException) e).getStatus() == 404) {
+            logger.info("Schema registry has no {}: {}", lookup, e.getMessage());
+            statusCode = 404;
+        } else if (e instanceof RestClientException || e instanceof IOException) {
+            logger.error("Schema registry failed to return {}", lookup, e);
+            statusCode = 502;
+        } else if (e instanceof SchemaConversionException || e instanceof IllegalArgumentException) {
+            logger.error("Could not convert the schema of {}", lookup, e);
+            statusCode = 422;
+        } else {
+            logger.error("Exception while processing the schema of {}", lookup, e);
+            statusCode = 500;
+        }
+        ResponseBody responseBody = new ResponseBody(httpMethod, requestPath, e.getMessage());
+        responseEvent.withStatusCode(statusCode).withBody(SingletonObjectMapper.getInstance().writeValueAsString(responseBody));
+    }
+
+    private static void registryNotConfigured(APIGatewayProxyResponseEvent responseEvent, String httpMethod, String requestPath)
+        throws JsonProcessingException {
+        ResponseBody responseBody = new ResponseBody(httpMethod, requestPath, "Schema registry is not configured");
+        responseEvent.withStatusCode(503).withBody(SingletonObjectMapper.getInstance().writeValueAsString(responseBody));
+    }
+
+    private static Optional<Integer> parseInt(String pathComponent) {
+        try {
+            return Optional.of(Integer.parseInt(pathComponent));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void shed(APIGatewayProxyResponseEvent responseEvent, BulkheadFullException e, String httpMethod, String requestPath)
+        throws JsonProcessingException {
+        logger.warn("Shedding {} {}: {}", httpMethod, requestPath, e.getMessage());
+        ResponseBody responseBody = new ResponseBody(httpMethod, requestPath, e.getMessage());
+        responseEvent.withStatusCode(e.getStatusCode())
+            .withHeaders(ImmutableMap.of("Content-Type", "application/json", "Retry-After", Integer.toString(e.getRetryAfterSeconds())))
+            .withBody(SingletonObjectMapper.getInstance().writeValueAsString(responseBody));
+    }
+
+    /**
+     * Answer 304 when the client already holds the current representation, echoing the entity tag it sent.
+     */
+    private static boolean notModified(APIGatewayProxyResponseEvent responseEvent, APIGatewayProxyRequestEvent inputEvent, String etag,
+        String cacheControl) {
+        Optional<String> matchingEtag =
+            ResponseCaching.matchingEtag(ResponseCaching.header(inputEvent.getHeaders(), "If-None-Match"), etag);
+        matchingEtag.ifPresent(e -> responseEvent.withStatusCode(304)
+            .withHeaders(ImmutableMap.of("ETag", e, "Cache-Control", cacheControl, "Vary", "Accept-Encoding")));
+        return matchingEtag.isPresent();
+    }
+
+    /**
+     * Send a 200 with validators and caching headers, gzip encoded when the client accepts it and the body is large enough.
+     */
+    private static void cacheable(APIGatewayProxyResponseEvent responseEvent, APIGatewayProxyRequestEvent inputEvent,
+        ResponseBody responseBody, String etag, String cacheControl) throws JsonProcessingException {
+        String body = SingletonObjectMapper.getInstance().writeValueAsString(responseBody);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("Cache-Control", cacheControl);
+        headers.put("Vary", "Accept-Encoding");
+        if (body.length() >= ConverterConfiguration.getCompressionMinSize()
+            && ResponseCaching.acceptsGzip(ResponseCaching.header(inputEvent.getHeaders(), "Accept-Encoding"))) {
+            headers.put("Content-Encoding", "gzip");
+            headers.put("ETag", ResponseCaching.gzipEtag(etag));
+            responseEvent.withStatusCode(200).withHeaders(headers).withIsBase64Encoded(true)
+                .withBody(Base64.getEncoder().encodeToString(ResponseCaching.gzip(body)));
+        } else {
+            headers.put("ETag", etag);
+            responseEvent.withStatusCode(200).withHeaders(headers).withBody(body);
+        }
+    }
+
+    private static void timedOut(APIGatewayProxyResponseEvent responseEvent, DeadlineExceededException e, String httpMethod,
+        String requestPath) throws JsonProcessingException {
+        logger.warn("Giving up on {} {}: {}", httpMethod, requestPath, e.getMessage());
+        ResponseBody responseBody = new ResponseBody(httpMethod, requestPath, e.getMessage());
+        responseEvent.withStatusCode(DeadlineExceededException.STATUS_CODE)
+            .withBody(SingletonObjectMapper.getInstance().writeValueAsString(responseBody));
+    }
+
     @AllArgsConstructor
     @Getter
     @Setter
@@ -0,0 +1,47 @@
+package com.github.drnushooz.schema.snowflake.converter.admission;
+
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulkheads shared by all requests handled by this process: one per schema format for conversions, which are shed with 429, and
+ * one for schema registry calls, which are shed with 503.
+ */
+public class AdmissionControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+    private static final Map<String, Bulkhead> conversionBulkheads = new ConcurrentHashMap<>();
+
+    public static boolean isBodyTooLarge(String body) {
+        return body != null && body.length() > ConverterConfiguration.getMaxRequestBodySize();
+    }
+
+    public static Bulkhead forConversion(String format) {
+        return conversionBulkheads.computeIfAbsent(format.toLowerCase(), f -> {
+            logger.info("Initializing {} conversion bulkhead with {} permits and queue size {}", f,
+                ConverterConfiguration.getMaxConcurrentConversions(), ConverterConfiguration.getMaxQueuedConversions());
+            return new Bulkhead(f + " conversion", ConverterConfiguration.getMaxConcurrentConversions(),
+                ConverterConfiguration.getMaxQueuedConversions(), ConverterConfiguration.getAdmissionMaxWaitMillis(), 429,
+                ConverterConfiguration.getRetryAfterSeconds());
+        });
+    }
+
+    public static Bulkhead forRegistry() {
+        return RegistryBulkheadHolder.INSTANCE;
+    }
+
+    private static class RegistryBulkheadHolder {
+
+        public static final Bulkhead INSTANCE = new Bulkhead("schema registry", ConverterConfiguration.getMaxConcurrentRegistryCalls(),
+            ConverterConfiguration.getMaxQueuedRegistryCalls(), ConverterConfiguration.getAdmissionMaxWaitMillis(), 503,
+            ConverterConfiguration.getRetryAfterSeconds());
+
+        static {
+            logger.info("Initializing schema registry bulkhead with {} permits and queue size {}", INSTANCE.getMaxConcurrent(),
+                ConverterConfiguration.getMaxQueuedRegistryCalls());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.drnushooz.schema.snowflake.converter.admission;
+
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+
+/**
+ * Limits the number of concurrent calls of one kind. Callers which do not get a permit right away wait in a bounded queue for at
+ * most maxWaitMillis; anything beyond that is rejected with a {@link BulkheadFullException}.
+ */
+public class Bulkhead {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final int rejectionStatusCode;
+    private final int retryAfterSeconds;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMillis, int rejectionStatusCode, int retryAfterSeconds) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.rejectionStatusCode = rejectionStatusCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public Permit acquire() throws BulkheadFullException, InterruptedException {
+        return acquire(maxWaitMillis);
+    }
+
+    /**
+     * Acquire a permit, waiting at most the smaller of maxWaitMillis and waitLimitMillis. The permit must be closed once the call
+     * completes.
+     */
+    public Permit acquire(long waitLimitMillis) throws BulkheadFullException, InterruptedException {
+        if (permits.tryAcquire()) {
+            return new Permit();
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new BulkheadFullException(name, rejectionStatusCode, retryAfterSeconds);
+        }
+        try {
+            if (!permits.tryAcquire(Math.max(0, Math.min(maxWaitMillis, waitLimitMillis)), TimeUnit.MILLISECONDS)) {
+                throw new BulkheadFullException(name, rejectionStatusCode, retryAfterSeconds);
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+        return new Permit();
+    }
+
+    /**
+     * Acquire a permit without waiting past the deadline. Running out of time while queued is reported as such rather than as
+     * the bulkhead being full.
+     */
+    public Permit acquire(Deadline deadline) throws BulkheadFullException, DeadlineExceededException, InterruptedException {
+        deadline.check(String.format("waiting for a %s permit", name));
+        try {
+            return acquire(deadline.remainingMillis());
+        } catch (BulkheadFullException e) {
+            deadline.check(String.format("waiting for a %s permit", name));
+            throw e;
+        }
+    }
+
+    /**
+     * A permit if one is free right now. Never queues, for optional work such as hedged calls.
+     */
+    public Optional<Permit> tryAcquire() {
+        return permits.tryAcquire() ? Optional.of(new Permit()) : Optional.empty();
+    }
+
+    /**
+     * Shed a call for a reason other than the bulkhead being full, answering it the same way.
+     */
+    public BulkheadFullException rejection(String reason) {
+        return new BulkheadFullException(name, reason, rejectionStatusCode, retryAfterSeconds);
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * May be closed by another thread than the one which acquired it, e.g. by the thread that ran the call.
+     */
+    public class Permit implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.drnushooz.schema.snowflake.converter.admission;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a {@link Bulkhead} sheds a call. Carries the HTTP status and Retry-After value to answer with.
+ */
+@Getter
+public class BulkheadFullException extends Exception {
+
+    private final String bulkheadName;
+    private final int statusCode;
+    private final int retryAfterSeconds;
+
+    public BulkheadFullException(String bulkheadName, int statusCode, int retryAfterSeconds) {
+        this(bulkheadName, String.format("Too many concurrent %s requests, retry after %d seconds", bulkheadName, retryAfterSeconds),
+            statusCode, retryAfterSeconds);
+    }
+
+    public BulkheadFullException(String bulkheadName, String message, int statusCode, int retryAfterSeconds) {
+        super(message);
+        this.bulkheadName = bulkheadName;
+        this.statusCode = statusCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.drnushooz.schema.snowflake.converter.admission;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import lombok.Getter;
+
+/**
+ * Point in wall clock time by which an invocation has to answer. Blocking calls wait at most {@link #remainingMillis()} so that a
+ * response still goes out before Lambda kills the invocation.
+ */
+public class Deadline {
+
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    @Getter
+    private final long epochMillis;
+
+    private Deadline(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    public static Deadline at(long epochMillis) {
+        return epochMillis == Long.MAX_VALUE ? NONE : new Deadline(epochMillis);
+    }
+
+    public static Deadline after(long millis) {
+        return at(System.currentTimeMillis() + millis);
+    }
+
+    /**
+     * Deadline of the invocation, reserveMillis early to leave time for sending the response. Contexts which do not know their
+     * remaining time give {@link #NONE}.
+     */
+    public static Deadline fromContext(Context context, long reserveMillis) {
+        if (context == null) {
+            return NONE;
+        }
+        try {
+            int remainingMillis = context.getRemainingTimeInMillis();
+            return remainingMillis == Integer.MAX_VALUE ? NONE : after(remainingMillis - reserveMillis);
+        } catch (UnsupportedOperationException e) {
+            return NONE;
+        }
+    }
+
+    public boolean isBounded() {
+        return epochMillis != Long.MAX_VALUE;
+    }
+
+    public long remainingMillis() {
+        return isBounded() ? Math.max(0, epochMillis - System.currentTimeMillis()) : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() == 0;
+    }
+
+    /**
+     * Throw if the deadline has passed, naming the work which could not be done.
+     */
+    public void check(String work) throws DeadlineExceededException {
+        if (isExpired()) {
+            throw new DeadlineExceededException(work);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isBounded() ? String.format("Deadline(%d ms remaining)", remainingMillis()) : "Deadline(none)";
+    }
+}
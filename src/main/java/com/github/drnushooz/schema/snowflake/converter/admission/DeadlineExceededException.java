@@ -0,0 +1,13 @@
+package com.github.drnushooz.schema.snowflake.converter.admission;
+
+/**
+ * Thrown when work is cut short because the invocation {@link Deadline} passed. Answered with a 504.
+ */
+public class DeadlineExceededException extends Exception {
+
+    public static final int STATUS_CODE = 504;
+
+    public DeadlineExceededException(String work) {
+        super(String.format("Deadline exceeded while %s", work));
+    }
+}
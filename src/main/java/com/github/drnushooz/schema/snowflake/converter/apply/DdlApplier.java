@@ -0,0 +1,284 @@
+package com.github.drnushooz.schema.snowflake.converter.apply;
+
+import com.github.drnushooz.schema.snowflake.converter.admission.Deadline;
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies generated table definitions through JDBC. This is a library for deployment tooling which has a DataSource at hand, the
+ * Lambda API does not expose it. A table which does not exist yet becomes a single create table if not exists; for an existing
+ * table only the columns it lacks are added, looked up with one information_schema query per schema. Applying the same
+ * definitions again is therefore a no-op and applying a newer version of a schema adds its new columns. Statements of a schema
+ * run in order on one connection, batchSize statements per round trip; separate schemas are applied in parallel on up to
+ * parallelism connections.
+ * <p>
+ * DDL is not transactional, Snowflake commits every statement on its own, so a failed apply can leave part of its statements
+ * applied. The results say which; as every statement is idempotent, applying the same definitions again completes the rest.
+ */
+public class DdlApplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DdlApplier.class);
+    private static final AtomicInteger applyThreadCounter = new AtomicInteger();
+    private static final String EXISTING_COLUMNS_QUERY =
+        "select table_name, column_name from information_schema.columns where upper(table_schema) = upper(?)";
+
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int batchSize;
+
+    /**
+     * When set a batch is sent as one semicolon separated multi-statement string instead of a JDBC batch. Snowflake runs JDBC
+     * batches of DDL one statement at a time, so this is the only way to save round trips there; the connection must allow it,
+     * e.g. with MULTI_STATEMENT_COUNT=0.
+     */
+    private final boolean multiStatement;
+
+    public DdlApplier(DataSource dataSource) {
+        this(dataSource, ConverterConfiguration.getApplyParallelism(), ConverterConfiguration.getApplyBatchSize(),
+            ConverterConfiguration.isApplyMultiStatement());
+    }
+
+    public DdlApplier(DataSource dataSource, int parallelism, int batchSize, boolean multiStatement) {
+        if (parallelism < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                String.format("Parallelism and batch size must be positive, got %d and %d", parallelism, batchSize));
+        }
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.multiStatement = multiStatement;
+    }
+
+    /**
+     * Apply table definitions grouped by the schema they belong to and return the result of every statement, in order per schema.
+     * A blank schema name applies to the default schema of the connection.
+     */
+    public List<StatementResult> apply(Map<String, List<String>> tableDefinitionsBySchema) throws InterruptedException {
+        return apply(tableDefinitionsBySchema, Deadline.NONE);
+    }
+
+    /**
+     * Apply table definitions, starting no batch once the deadline has passed. Statements which were not attempted are reported as
+     * skipped, so the results can be partial; running statements are bounded by a JDBC query timeout.
+     */
+    public List<StatementResult> apply(Map<String, List<String>> tableDefinitionsBySchema, Deadline deadline)
+        throws InterruptedException {
+        List<Callable<List<StatementResult>>> schemaTasks = new ArrayList<>();
+        for (Entry<String, List<String>> schemaTableDefinitions : tableDefinitionsBySchema.entrySet()) {
+            List<TableDefinition> tables =
+                schemaTableDefinitions.getValue().stream().map(TableDefinition::parse).collect(Collectors.toList());
+            schemaTasks.add(() -> applyToSchema(schemaTableDefinitions.getKey(), tables, deadline));
+        }
+
+        ExecutorService applyExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, schemaTasks.size())), r -> {
+            Thread thread = new Thread(r, "ddl-apply-" + applyThreadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<StatementResult> results = new ArrayList<>();
+            for (Future<List<StatementResult>> schemaResults : applyExecutor.invokeAll(schemaTasks)) {
+                results.addAll(schemaResults.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while applying table definitions", e.getCause());
+        } finally {
+            applyExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Statements which bring the tables of a schema up to their definitions, given the columns the schema already has by table
+     * name. The map and sets should ignore case the way unquoted identifiers do, like the ones looked up before applying.
+     */
+    public static List<String> toStatements(String schemaName, List<TableDefinition> tables,
+        Map<String, Set<String>> existingColumnsByTable) {
+        List<String> statements = new ArrayList<>();
+        for (TableDefinition table : tables) {
+            String qualifiedTableName = isNamed(schemaName) ? schemaName + "." + table.getTableName() : table.getTableName();
+            Set<String> existingColumns = existingColumnsByTable.get(unquote(table.getTableName()));
+            if (existingColumns == null) {
+                statements.add(String.format("create table if not exists %s(%s)", qualifiedTableName,
+                    String.join(", ", table.getColumnDefinitions())));
+                continue;
+            }
+            for (String columnDefinition : table.getColumnDefinitions()) {
+                if (!existingColumns.contains(unquote(columnDefinition.split("\\s+", 2)[0]))) {
+                    statements.add(String.format("alter table %s add column if not exists %s", qualifiedTableName, columnDefinition));
+                }
+            }
+        }
+        return statements;
+    }
+
+    private List<StatementResult> applyToSchema(String schemaName, List<TableDefinition> tables, Deadline deadline) {
+        List<StatementResult> results = new ArrayList<>();
+        List<String> statements = new ArrayList<>();
+        boolean tableStatementsKnown = false;
+        try (Connection connection = dataSource.getConnection()) {
+            if (isNamed(schemaName)) {
+                String createSchema = String.format("create schema if not exists %s", schemaName);
+                statements.add(createSchema);
+                results.addAll(executeEach(connection, schemaName, List.of(createSchema), deadline));
+            }
+            if (deadline.isExpired()) {
+                // Nothing was looked up, so report every table as one skipped create table
+                statements.addAll(toStatements(schemaName, tables, Map.of()));
+                results.addAll(skipped(schemaName, statements.subList(results.size(), statements.size())));
+                return results;
+            }
+
+            statements.addAll(toStatements(schemaName, tables, existingColumns(connection, schemaName)));
+            tableStatementsKnown = true;
+            for (int batchStart = results.size(); batchStart < statements.size(); batchStart += batchSize) {
+                List<String> batch = statements.subList(batchStart, Math.min(batchStart + batchSize, statements.size()));
+                results.addAll(multiStatement ? executeMultiStatement(connection, schemaName, batch, deadline)
+                    : executeBatch(connection, schemaName, batch, deadline));
+            }
+        } catch (SQLException e) {
+            logger.error("Could not apply table definitions for schema {}", schemaName, e);
+            if (!tableStatementsKnown) {
+                // Failed before the existing columns were known, report the tables as they would be created
+                statements.addAll(toStatements(schemaName, tables, Map.of()));
+            }
+            for (String statement : statements.subList(results.size(), statements.size())) {
+                results.add(StatementResult.failed(schemaName, statement, e.getMessage()));
+            }
+        }
+        logger.info("Applied {} statements for schema {}", results.size(), schemaName);
+        return results;
+    }
+
+    /**
+     * Column names of every table in the schema, or in the connection's current schema for a blank name, by table name.
+     */
+    private static Map<String, Set<String>> existingColumns(Connection connection, String schemaName) throws SQLException {
+        Map<String, Set<String>> columnsByTable = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (PreparedStatement statement = connection.prepareStatement(EXISTING_COLUMNS_QUERY)) {
+            statement.setString(1, isNamed(schemaName) ? unquote(schemaName) : connection.getSchema());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    columnsByTable.computeIfAbsent(resultSet.getString(1), t -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER))
+                        .add(resultSet.getString(2));
+                }
+            }
+        }
+        return columnsByTable;
+    }
+
+    private List<StatementResult> executeBatch(Connection connection, String schemaName, List<String> batch, Deadline deadline)
+        throws SQLException {
+        if (deadline.isExpired()) {
+            return skipped(schemaName, batch);
+        }
+        try (Statement statement = createStatement(connection, deadline)) {
+            for (String sql : batch) {
+                statement.addBatch(sql);
+            }
+            statement.executeBatch();
+            return applied(schemaName, batch);
+        } catch (SQLException e) {
+            // Drivers differ in whether they go on after a failed batch entry, so find the culprits one statement at a time
+            logger.warn("Batch of {} statements for schema {} failed, applying them one at a time", batch.size(), schemaName, e);
+            return executeEach(connection, schemaName, batch, deadline);
+        }
+    }
+
+    /**
+     * The driver reports the outcome of every statement as a result of its own, and a failing statement only surfaces once its
+     * result is reached, so all of them are read before the batch counts as applied.
+     */
+    private List<StatementResult> executeMultiStatement(Connection connection, String schemaName, List<String> batch,
+        Deadline deadline) throws SQLException {
+        if (deadline.isExpired()) {
+            return skipped(schemaName, batch);
+        }
+        int completedStatements = 0;
+        try (Statement statement = createStatement(connection, deadline)) {
+            boolean isResultSet = statement.execute(String.join(";\n", batch));
+            while (isResultSet || statement.getUpdateCount() != -1) {
+                completedStatements++;
+                isResultSet = statement.getMoreResults();
+            }
+        } catch (SQLException e) {
+            logger.warn("Multi-statement of {} statements for schema {} failed after {}, applying the rest one at a time",
+                batch.size(), schemaName, completedStatements, e);
+        }
+        List<StatementResult> results = new ArrayList<>(applied(schemaName, batch.subList(0, Math.min(completedStatements, batch.size()))));
+        if (results.size() < batch.size()) {
+            // Also covers drivers which run only the first statement of the string without complaining
+            results.addAll(executeEach(connection, schemaName, batch.subList(results.size(), batch.size()), deadline));
+        }
+        return results;
+    }
+
+    /**
+     * Rerunning statements of a failed batch which did succeed is harmless because every statement is idempotent.
+     */
+    private List<StatementResult> executeEach(Connection connection, String schemaName, List<String> batch, Deadline deadline)
+        throws SQLException {
+        List<StatementResult> results = new ArrayList<>(batch.size());
+        for (String sql : batch) {
+            if (deadline.isExpired()) {
+                results.add(StatementResult.skipped(schemaName, sql));
+                continue;
+            }
+            try (Statement statement = createStatement(connection, deadline)) {
+                statement.execute(sql);
+                results.add(StatementResult.applied(schemaName, sql));
+            } catch (SQLException e) {
+                logger.error("Statement for schema {} failed: {}", schemaName, sql, e);
+                results.add(StatementResult.failed(schemaName, sql, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private static Statement createStatement(Connection connection, Deadline deadline) throws SQLException {
+        Statement statement = connection.createStatement();
+        if (deadline.isBounded()) {
+            // Query timeouts are in whole seconds and 0 would mean no timeout at all
+            statement.setQueryTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, (deadline.remainingMillis() + 999) / 1000)));
+        }
+        return statement;
+    }
+
+    private static boolean isNamed(String schemaName) {
+        return schemaName != null && !schemaName.isBlank();
+    }
+
+    private static String unquote(String identifier) {
+        return identifier.length() > 1 && identifier.startsWith("\"") && identifier.endsWith("\"")
+            ? identifier.substring(1, identifier.length() - 1) : identifier;
+    }
+
+    private static List<StatementResult> applied(String schemaName, List<String> batch) {
+        return batch.stream().map(sql -> StatementResult.applied(schemaName, sql)).collect(Collectors.toList());
+    }
+
+    private static List<StatementResult> skipped(String schemaName, List<String> batch) {
+        return batch.stream().map(sql -> StatementResult.skipped(schemaName, sql)).collect(Collectors.toList());
+    }
+}
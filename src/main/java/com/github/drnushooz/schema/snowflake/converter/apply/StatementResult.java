@@ -0,0 +1,37 @@
+package com.github.drnushooz.schema.snowflake.converter.apply;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class StatementResult {
+
+    private final String schemaName;
+    private final String statement;
+    private final Status status;
+    private final String message;
+
+    public static StatementResult applied(String schemaName, String statement) {
+        return new StatementResult(schemaName, statement, Status.APPLIED, null);
+    }
+
+    public static StatementResult failed(String schemaName, String statement, String message) {
+        return new StatementResult(schemaName, statement, Status.FAILED, message);
+    }
+
+    /**
+     * Not attempted because the deadline passed first.
+     */
+    public static StatementResult skipped(String schemaName, String statement) {
+        return new StatementResult(schemaName, statement, Status.SKIPPED, "Deadline exceeded before the statement was attempted");
+    }
+
+    public enum Status {
+        APPLIED,
+        FAILED,
+        SKIPPED
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.drnushooz.schema.snowflake.converter.apply;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Table name and column definitions of a statement produced by the schema converters, e.g. create table t(a int, b varchar(10));
+ */
+@Getter
+@RequiredArgsConstructor
+public class TableDefinition {
+
+    private static final String CREATE_TABLE_PREFIX = "create table ";
+
+    private final String tableName;
+    private final List<String> columnDefinitions;
+
+    public static TableDefinition parse(String tableDefinition) {
+        String statement = tableDefinition.strip();
+        if (statement.endsWith(";")) {
+            statement = statement.substring(0, statement.length() - 1).stripTrailing();
+        }
+        int openingBracketPos = statement.indexOf('(');
+        if (!statement.regionMatches(true, 0, CREATE_TABLE_PREFIX, 0, CREATE_TABLE_PREFIX.length()) || openingBracketPos < 0
+            || !statement.endsWith(")")) {
+            throw new IllegalArgumentException(String.format("Not a generated table definition: %s", tableDefinition));
+        }
+
+        String tableName = statement.substring(CREATE_TABLE_PREFIX.length(), openingBracketPos).strip();
+        String columns = statement.substring(openingBracketPos + 1, statement.length() - 1);
+        List<String> columnDefinitions = new ArrayList<>();
+        int depth = 0;
+        int columnStart = 0;
+        for (int i = 0; i < columns.length(); i++) {
+            char c = columns.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                columnDefinitions.add(columns.substring(columnStart, i).strip());
+                columnStart = i + 1;
+            }
+        }
+        columnDefinitions.add(columns.substring(columnStart).strip());
+        return new TableDefinition(tableName, List.copyOf(columnDefinitions));
+    }
+}
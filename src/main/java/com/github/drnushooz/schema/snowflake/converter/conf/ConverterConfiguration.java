@@ -1,21 +1,152 @@
 package com.github.drnushooz.schema.snowflake.converter.conf;
 
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import com.google.common.collect.ImmutableList;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.Getter;
 
 public class ConverterConfiguration {
 
     public static final String SCHEMA_REGISTRY_URL_KEY = "SCHEMA_REGISTRY_URL";
     public static final String SCHEMA_REGISTRY_CACHE_SIZE_KEY = "SCHEMA_REGISTRY_CACHE_SIZE";
+    public static final String SCHEMA_REGISTRY_ID_CACHE_SIZE_KEY = "SCHEMA_REGISTRY_ID_CACHE_SIZE";
+    public static final String REGISTRY_HEDGE_PERCENTILE_KEY = "REGISTRY_HEDGE_PERCENTILE";
+    public static final String REGISTRY_HEDGE_MIN_DELAY_MS_KEY = "REGISTRY_HEDGE_MIN_DELAY_MS";
+    public static final String REGISTRY_CIRCUIT_FAILURE_THRESHOLD_KEY = "REGISTRY_CIRCUIT_FAILURE_THRESHOLD";
+    public static final String REGISTRY_CIRCUIT_OPEN_MS_KEY = "REGISTRY_CIRCUIT_OPEN_MS";
+    public static final String REGISTRY_CONNECT_TIMEOUT_MS_KEY = "REGISTRY_CONNECT_TIMEOUT_MS";
+    public static final String REGISTRY_READ_TIMEOUT_MS_KEY = "REGISTRY_READ_TIMEOUT_MS";
+    public static final String UNION_STRATEGY_KEY = "UNION_STRATEGY";
+    public static final String UNION_COLUMN_NAME_FORMAT_KEY = "UNION_COLUMN_NAME_FORMAT";
+    public static final String MAX_REQUEST_BODY_SIZE_KEY = "MAX_REQUEST_BODY_SIZE";
+    public static final String MAX_CONCURRENT_CONVERSIONS_KEY = "MAX_CONCURRENT_CONVERSIONS";
+    public static final String MAX_QUEUED_CONVERSIONS_KEY = "MAX_QUEUED_CONVERSIONS";
+    public static final String MAX_CONCURRENT_REGISTRY_CALLS_KEY = "MAX_CONCURRENT_REGISTRY_CALLS";
+    public static final String MAX_QUEUED_REGISTRY_CALLS_KEY = "MAX_QUEUED_REGISTRY_CALLS";
+    public static final String ADMISSION_MAX_WAIT_MS_KEY = "ADMISSION_MAX_WAIT_MS";
+    public static final String RETRY_AFTER_SECONDS_KEY = "RETRY_AFTER_SECONDS";
+    public static final String LOG_BUFFER_SIZE_KEY = "LOG_BUFFER_SIZE";
+    public static final String LOG_PAYLOAD_MAX_LENGTH_KEY = "LOG_PAYLOAD_MAX_LENGTH";
+    public static final String LOG_FLUSH_TIMEOUT_MS_KEY = "LOG_FLUSH_TIMEOUT_MS";
+    public static final String DEADLINE_RESERVE_MS_KEY = "DEADLINE_RESERVE_MS";
+    public static final String LATEST_SCHEMA_MAX_AGE_SECONDS_KEY = "LATEST_SCHEMA_MAX_AGE_SECONDS";
+    public static final String VERSIONED_SCHEMA_MAX_AGE_SECONDS_KEY = "VERSIONED_SCHEMA_MAX_AGE_SECONDS";
+    public static final String COMPRESSION_MIN_SIZE_KEY = "COMPRESSION_MIN_SIZE";
+    public static final String APPLY_PARALLELISM_KEY = "APPLY_PARALLELISM";
+    public static final String APPLY_BATCH_SIZE_KEY = "APPLY_BATCH_SIZE";
+    public static final String APPLY_MULTI_STATEMENT_KEY = "APPLY_MULTI_STATEMENT";
 
     @Getter
-    private static final String schemaRegistryURL = Optional.ofNullable(System.getenv(SCHEMA_REGISTRY_URL_KEY)).orElse("");
+    private static final String schemaRegistryURL = getSetting(SCHEMA_REGISTRY_URL_KEY).orElse("");
 
     @Getter
-    private static final int schemaRegistryCacheSize =
-        Optional.ofNullable(System.getenv(SCHEMA_REGISTRY_CACHE_SIZE_KEY)).map(Integer::parseInt).orElse(20);
+    private static final int schemaRegistryCacheSize = getSetting(SCHEMA_REGISTRY_CACHE_SIZE_KEY).map(Integer::parseInt).orElse(20);
+
+    @Getter
+    private static final int schemaRegistryIdCacheSize =
+        getSetting(SCHEMA_REGISTRY_ID_CACHE_SIZE_KEY).map(Integer::parseInt).orElse(1000);
+
+    @Getter
+    private static final double registryHedgePercentile =
+        getSetting(REGISTRY_HEDGE_PERCENTILE_KEY).map(Double::parseDouble).orElse(95.0);
+
+    @Getter
+    private static final long registryHedgeMinDelayMillis =
+        getSetting(REGISTRY_HEDGE_MIN_DELAY_MS_KEY).map(Long::parseLong).orElse(50L);
+
+    @Getter
+    private static final int registryCircuitFailureThreshold =
+        getSetting(REGISTRY_CIRCUIT_FAILURE_THRESHOLD_KEY).map(Integer::parseInt).orElse(5);
+
+    @Getter
+    private static final long registryCircuitOpenMillis = getSetting(REGISTRY_CIRCUIT_OPEN_MS_KEY).map(Long::parseLong).orElse(30000L);
+
+    @Getter
+    private static final int registryConnectTimeoutMillis =
+        getSetting(REGISTRY_CONNECT_TIMEOUT_MS_KEY).map(Integer::parseInt).orElse(1000);
+
+    @Getter
+    private static final int registryReadTimeoutMillis = getSetting(REGISTRY_READ_TIMEOUT_MS_KEY).map(Integer::parseInt).orElse(5000);
+
+    @Getter
+    private static final UnionStrategy unionStrategy = getSetting(UNION_STRATEGY_KEY)
+        .map(mode -> UnionStrategy.of(UnionStrategy.Mode.valueOf(mode.toUpperCase()),
+            getSetting(UNION_COLUMN_NAME_FORMAT_KEY).orElse(UnionStrategy.DEFAULT_COLUMN_NAME_FORMAT)))
+        .orElse(UnionStrategy.VARIANT);
+
+    @Getter
+    private static final int maxRequestBodySize = getSetting(MAX_REQUEST_BODY_SIZE_KEY).map(Integer::parseInt).orElse(1024 * 1024);
+
+    @Getter
+    private static final int maxConcurrentConversions = getSetting(MAX_CONCURRENT_CONVERSIONS_KEY).map(Integer::parseInt)
+        .orElse(Runtime.getRuntime().availableProcessors());
+
+    @Getter
+    private static final int maxQueuedConversions =
+        getSetting(MAX_QUEUED_CONVERSIONS_KEY).map(Integer::parseInt).orElse(2 * maxConcurrentConversions);
+
+    @Getter
+    private static final int maxConcurrentRegistryCalls = getSetting(MAX_CONCURRENT_REGISTRY_CALLS_KEY).map(Integer::parseInt).orElse(8);
+
+    @Getter
+    private static final int maxQueuedRegistryCalls =
+        getSetting(MAX_QUEUED_REGISTRY_CALLS_KEY).map(Integer::parseInt).orElse(2 * maxConcurrentRegistryCalls);
+
+    @Getter
+    private static final long admissionMaxWaitMillis = getSetting(ADMISSION_MAX_WAIT_MS_KEY).map(Long::parseLong).orElse(250L);
+
+    @Getter
+    private static final int retryAfterSeconds = getSetting(RETRY_AFTER_SECONDS_KEY).map(Integer::parseInt).orElse(1);
+
+    @Getter
+    private static final int logBufferSize = getSetting(LOG_BUFFER_SIZE_KEY).map(Integer::parseInt).orElse(1024);
+
+    @Getter
+    private static final int logPayloadMaxLength = getSetting(LOG_PAYLOAD_MAX_LENGTH_KEY).map(Integer::parseInt).orElse(1024);
+
+    @Getter
+    private static final long logFlushTimeoutMillis = getSetting(LOG_FLUSH_TIMEOUT_MS_KEY).map(Long::parseLong).orElse(100L);
+
+    @Getter
+    private static final long deadlineReserveMillis = getSetting(DEADLINE_RESERVE_MS_KEY).map(Long::parseLong).orElse(250L);
+
+    @Getter
+    private static final int latestSchemaMaxAgeSeconds =
+        getSetting(LATEST_SCHEMA_MAX_AGE_SECONDS_KEY).map(Integer::parseInt).orElse(60);
+
+    @Getter
+    private static final int versionedSchemaMaxAgeSeconds =
+        getSetting(VERSIONED_SCHEMA_MAX_AGE_SECONDS_KEY).map(Integer::parseInt).orElse(3600);
+
+    @Getter
+    private static final int compressionMinSize = getSetting(COMPRESSION_MIN_SIZE_KEY).map(Integer::parseInt).orElse(1024);
+
+    @Getter
+    private static final int applyParallelism = getSetting(APPLY_PARALLELISM_KEY).map(Integer::parseInt).orElse(4);
+
+    @Getter
+    private static final int applyBatchSize = getSetting(APPLY_BATCH_SIZE_KEY).map(Integer::parseInt).orElse(100);
+
+    @Getter
+    private static final boolean applyMultiStatement = getSetting(APPLY_MULTI_STATEMENT_KEY).map(Boolean::parseBoolean).orElse(false);
 
     public static boolean isSchemaRegistryEnabled() {
         return !schemaRegistryURL.isBlank();
     }
+
+    /**
+     * SCHEMA_REGISTRY_URL may list several registry nodes separated by commas, in order of preference.
+     */
+    public static ImmutableList<String> getSchemaRegistryURLs() {
+        return Stream.of(schemaRegistryURL.split(",")).map(String::trim).filter(url -> !url.isEmpty())
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Look up a setting from system properties first and then from the environment, the same precedence CustomLambdaRuntime uses.
+     */
+    private static Optional<String> getSetting(String key) {
+        return Optional.ofNullable(System.getProperty(key)).or(() -> Optional.ofNullable(System.getenv(key)));
+    }
 }
@@ -0,0 +1,12 @@
+package com.github.drnushooz.schema.snowflake.converter.core;
+
+/**
+ * Thrown by a {@link SchemaConverter} when a schema cannot be parsed. Wraps the checked exception of the format's own parser, so
+ * callers handle one exception whatever the schema format.
+ */
+public class SchemaConversionException extends Exception {
+
+    public SchemaConversionException(String schemaType, Throwable cause) {
+        super(String.format("Could not parse %s schema: %s", schemaType, cause.getMessage()), cause);
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.drnushooz.schema.snowflake.converter.core;
+
+/**
+ * Generates a Snowflake SQL table definition from a schema in one format.
+ */
+public interface SchemaConverter {
+
+    String generate(String schema, UnionStrategy unionStrategy) throws SchemaConversionException;
+}
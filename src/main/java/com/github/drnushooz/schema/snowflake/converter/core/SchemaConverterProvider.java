@@ -0,0 +1,15 @@
+package com.github.drnushooz.schema.snowflake.converter.core;
+
+/**
+ * Service provider for a {@link SchemaConverter}. Providers are loaded through {@link java.util.ServiceLoader} and must not touch the
+ * libraries of their format; those are only loaded once {@link #create()} is called.
+ */
+public interface SchemaConverterProvider {
+
+    /**
+     * Schema type as reported by the schema registry, e.g. AVRO.
+     */
+    String getSchemaType();
+
+    SchemaConverter create();
+}
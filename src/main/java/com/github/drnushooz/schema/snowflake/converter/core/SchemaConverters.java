@@ -0,0 +1,64 @@
+package com.github.drnushooz.schema.snowflake.converter.core;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the schema converters available on the classpath. Each converter is created on first use, so a process which only
+ * sees one schema format never loads the libraries of the others.
+ */
+public class SchemaConverters {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaConverters.class);
+    private static final Map<String, SchemaConverter> converters = new ConcurrentHashMap<>();
+
+    private static class ProvidersHolder {
+
+        public static final Map<String, SchemaConverterProvider> providers = loadProviders();
+    }
+
+    public static SchemaConverter forSchemaType(String schemaType) {
+        String normalizedSchemaType = schemaType.toUpperCase(Locale.ROOT);
+        SchemaConverterProvider provider = ProvidersHolder.providers.get(normalizedSchemaType);
+        if (provider == null) {
+            throw new IllegalArgumentException(
+                String.format("Found invalid schema type: %s, supported types are %s", schemaType, getSupportedSchemaTypes()));
+        }
+        return converters.computeIfAbsent(normalizedSchemaType, t -> {
+            logger.info("Initializing {} schema converter", t);
+            return provider.create();
+        });
+    }
+
+    public static Set<String> getSupportedSchemaTypes() {
+        return ProvidersHolder.providers.keySet();
+    }
+
+    private static Map<String, SchemaConverterProvider> loadProviders() {
+        Map<String, SchemaConverterProvider> providers = new LinkedHashMap<>();
+        Iterator<SchemaConverterProvider> providerIterator = ServiceLoader.load(SchemaConverterProvider.class).iterator();
+        while (true) {
+            try {
+                if (!providerIterator.hasNext()) {
+                    break;
+                }
+                SchemaConverterProvider provider = providerIterator.next();
+                providers.putIfAbsent(provider.getSchemaType().toUpperCase(Locale.ROOT), provider);
+            } catch (ServiceConfigurationError e) {
+                // Slim builds leave out some formats while keeping the shared service file
+                logger.debug("Skipping unavailable schema converter", e);
+            }
+        }
+        logger.info("Available schema converters: {}", providers.keySet());
+        return ImmutableMap.copyOf(providers);
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.drnushooz.schema.snowflake.converter.core;
+
+import java.text.MessageFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How Avro unions other than [null, T] and Protobuf oneof groups are mapped to columns.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UnionStrategy {
+
+    public static final String DEFAULT_COLUMN_NAME_FORMAT = "{0}_{1}";
+
+    // Split columns are built as Avro fields, whose names have to be plain identifiers
+    private static final Pattern VALID_COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * Avro unions become a single variant column, Protobuf oneof members keep their own names.
+     */
+    public static final UnionStrategy VARIANT = new UnionStrategy(Mode.VARIANT, DEFAULT_COLUMN_NAME_FORMAT);
+
+    @NonNull
+    private final Mode mode;
+
+    /**
+     * {@link MessageFormat} pattern for split column names. {0} is the Avro field or Protobuf oneof name, {1} is the Avro branch
+     * type name or the Protobuf member field name.
+     */
+    @NonNull
+    private final String columnNameFormat;
+
+    public static UnionStrategy split() {
+        return split(DEFAULT_COLUMN_NAME_FORMAT);
+    }
+
+    public static UnionStrategy split(String columnNameFormat) {
+        return of(Mode.SPLIT, columnNameFormat);
+    }
+
+    /**
+     * Strategy with a column name format checked up front, so that a format which gives invalid or indistinguishable column names
+     * fails at startup rather than on every request with a union.
+     */
+    public static UnionStrategy of(Mode mode, String columnNameFormat) {
+        UnionStrategy unionStrategy = new UnionStrategy(mode, columnNameFormat);
+        String sampleColumnName = unionStrategy.columnName("union", "branch");
+        if (!VALID_COLUMN_NAME.matcher(sampleColumnName).matches()) {
+            throw new IllegalArgumentException(String.format("Column name format %s gives %s for union and branch, which is not a valid "
+                + "column name", columnNameFormat, sampleColumnName));
+        }
+        if (sampleColumnName.equals(unionStrategy.columnName("union", "other_branch"))) {
+            throw new IllegalArgumentException(
+                String.format("Column name format %s gives the same column name for every branch, it needs {1}", columnNameFormat));
+        }
+        return unionStrategy;
+    }
+
+    public boolean isSplit() {
+        return mode == Mode.SPLIT;
+    }
+
+    public String columnName(String unionName, String branchName) {
+        return MessageFormat.format(columnNameFormat, unionName, branchName);
+    }
+
+    /**
+     * Split column name which is not in takenColumnNames yet, falling back to the branch name suffixed with branchIndex on a clash,
+     * the position of an Avro branch or the number of a Protobuf field.
+     * Snowflake identifiers are case insensitive, so takenColumnNames holds lower case names; the returned name is added to it.
+     */
+    public String uniqueColumnName(String unionName, String branchName, int branchIndex, Set<String> takenColumnNames) {
+        String columnName = columnName(unionName, branchName);
+        if (takenColumnNames.contains(columnName.toLowerCase())) {
+            columnName = columnName(unionName, branchName + "_" + branchIndex);
+        }
+        if (!takenColumnNames.add(columnName.toLowerCase())) {
+            throw new IllegalArgumentException(
+                String.format("Cannot find a unique column name for branch %d of %s, %s is taken", branchIndex, unionName, columnName));
+        }
+        return columnName;
+    }
+
+    public enum Mode {
+        VARIANT,
+        SPLIT
+    }
+}
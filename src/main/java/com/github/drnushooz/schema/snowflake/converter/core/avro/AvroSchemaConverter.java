@@ -0,0 +1,235 @@
+package com.github.drnushooz.schema.snowflake.converter.core.avro;
+
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Stack;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.Schema.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AvroSchemaConverter implements SchemaConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvroSchemaConverter.class);
+    private static final Schema NULL_AVRO_SCHEMA = Schema.create(Schema.Type.NULL);
+
+    private static class AvroSchemaConverterHolder {
+
+        public static final AvroSchemaConverter avroSchemaConverter = new AvroSchemaConverter();
+    }
+
+    public static AvroSchemaConverter getInstance() {
+        return AvroSchemaConverterHolder.avroSchemaConverter;
+    }
+
+    /**
+     * Generate Snowflake SQL table definition based on Avro schema.
+     */
+    @Override
+    public String generate(String schema, UnionStrategy unionStrategy) {
+        Parser avroSchemaParser = new Parser();
+        Schema avroSchema = avroSchemaParser.parse(schema);
+        return generate(avroSchema, unionStrategy);
+    }
+
+    public String generate(Schema avroSchema, UnionStrategy unionStrategy) {
+        if (avroSchema.getType() != Schema.Type.RECORD) {
+            throw new IllegalArgumentException("Outermost type must be record!");
+        }
+
+        StringBuilder snowflakeQueryBuffer = new StringBuilder();
+        snowflakeQueryBuffer.append("create table ").append(avroSchema.getName()).append("(");
+        Iterator<Field> fieldsIterator = avroSchema.getFields().iterator();
+        StringBuilder fieldType = new StringBuilder();
+
+        // Split union columns must not clash with the record's own fields or with each other
+        Set<String> takenColumnNames =
+            avroSchema.getFields().stream().map(field -> field.name().toLowerCase()).collect(Collectors.toCollection(HashSet::new));
+
+        Stack<Field> fieldsToProcess = new Stack<>();
+        fieldsToProcess.push(fieldsIterator.next());
+        while (!fieldsToProcess.isEmpty()) {
+            Field curField = fieldsToProcess.pop();
+            String curFieldName = curField.name();
+            @NonNull Schema curFieldSchema = curField.schema();
+            Schema.Type curFieldType = curFieldSchema.getType();
+            Optional<LogicalType> curFieldLogicalType = Optional.ofNullable(curFieldSchema.getLogicalType());
+
+            switch (curFieldType) {
+                case NULL:
+                    throw new IllegalArgumentException("Standalone null fields are not supported for Avro by this converter");
+
+                case BOOLEAN:
+                    snowflakeQueryBuffer.append(String.format(" %s boolean,", curFieldName));
+                    break;
+
+                case BYTES:
+                    fieldType.delete(0, fieldType.length());
+                    fieldType.append(curFieldLogicalType.map(logicalType -> {
+                            String fType = "binary";
+                            if (logicalType instanceof LogicalTypes.Decimal) {
+                                fType = "varchar";
+                            }
+                            return fType;
+                        })
+                        .orElse("binary"));
+                    snowflakeQueryBuffer.append(String.format(" %s %s,", curFieldName, fieldType));
+                    break;
+
+                case FIXED:
+                    fieldType.delete(0, fieldType.length());
+                    fieldType.append(curFieldLogicalType.map(logicalType -> {
+                            String fType = "binary";
+                            if (logicalType instanceof LogicalTypes.Decimal) {
+                                fType = "varchar";
+                            } else if (curFieldSchema.getProp("size").equals("12")) {
+                                // Duration logical type
+                                fType = "timestamp_ntz";
+                            }
+                            return fType;
+                        })
+                        .orElse("binary"));
+                    snowflakeQueryBuffer.append(String.format(" %s %s,", curFieldName, fieldType));
+                    break;
+
+                case DOUBLE:
+                    snowflakeQueryBuffer.append(String.format(" %s double,", curFieldName));
+                    break;
+
+                case FLOAT:
+                    snowflakeQueryBuffer.append(String.format(" %s float,", curFieldName));
+                    break;
+
+                case INT:
+                    fieldType.delete(0, fieldType.length());
+                    fieldType.append(curFieldLogicalType.map(logicalType -> {
+                            String fType = "int";
+                            if (logicalType instanceof LogicalTypes.Date) {
+                                fType = "date";
+                            } else if (logicalType instanceof LogicalTypes.TimeMillis) {
+                                fType = "timestamp";
+                            }
+                            return fType;
+                        })
+                        .orElse("int"));
+                    snowflakeQueryBuffer.append(String.format(" %s %s,", curFieldName, fieldType));
+                    break;
+
+                case LONG:
+                    fieldType.delete(0, fieldType.length());
+                    fieldType.append(
+                        curFieldLogicalType.map(logicalType -> {
+                                String fType = "bigint";
+                                if (logicalType instanceof LogicalTypes.TimeMicros) {
+                                    fType = "timestamp_ntz";
+                                } else if (logicalType instanceof LogicalTypes.TimestampMillis) {
+                                    fType = "timestamp";
+                                } else if (logicalType instanceof LogicalTypes.TimestampMicros) {
+                                    fType = "timestamp";
+                                } else if (logicalType instanceof LogicalTypes.LocalTimestampMillis) {
+                                    fType = "timestamp_tz";
+                                } else if (logicalType instanceof LogicalTypes.LocalTimestampMicros) {
+                                    fType = "timestamp_tz";
+                                }
+                                return fType;
+                            })
+                            .orElse("bigint"));
+                    snowflakeQueryBuffer.append(String.format(" %s %s,", curFieldName, fieldType));
+                    break;
+
+                case ENUM:
+                case STRING:
+                    snowflakeQueryBuffer.append(String.format(" %s string,", curFieldName));
+                    break;
+
+                case ARRAY:
+                    snowflakeQueryBuffer.append(String.format(" %s array,", curFieldName));
+                    break;
+
+                case MAP:
+                case RECORD:
+                    snowflakeQueryBuffer.append(String.format(" %s object,", curFieldName));
+                    break;
+
+                case UNION:
+                    List<Schema> schemaTypes = curFieldSchema.getTypes();
+                    if (schemaTypes.size() == 2 && schemaTypes.contains(NULL_AVRO_SCHEMA)) {
+                        for (Schema memberType : schemaTypes) {
+                            if (!memberType.equals(NULL_AVRO_SCHEMA)) {
+                                fieldsToProcess.push(new Field(curFieldName, memberType));
+                            }
+                        }
+                    } else if (unionStrategy.isSplit()) {
+                        List<Field> branchFields = splitBranchFields(curFieldName, schemaTypes, unionStrategy, takenColumnNames);
+                        // Push in reverse so that the branch columns come out in declaration order
+                        for (int i = branchFields.size() - 1; i >= 0; i--) {
+                            fieldsToProcess.push(branchFields.get(i));
+                        }
+                    } else {
+                        snowflakeQueryBuffer.append(String.format(" %s variant,", curFieldName));
+                    }
+                    break;
+
+                default:
+                    IllegalArgumentException iae =
+                        new IllegalArgumentException(String.format("Unknown type: %s for field: %s", curFieldType, curFieldName));
+                    logger.error(String.format("Exception while trying to parse avro field: %s", curFieldName), iae);
+                    throw iae;
+            }
+
+            // Once all fields expanded from the current one are processed, proceed to the next field in the record.
+            if (fieldsToProcess.isEmpty() && fieldsIterator.hasNext()) {
+                fieldsToProcess.push(fieldsIterator.next());
+            }
+        }
+
+        int firstBracketPos = snowflakeQueryBuffer.indexOf("(");
+        snowflakeQueryBuffer.delete(firstBracketPos + 1, firstBracketPos + 2);
+        snowflakeQueryBuffer.delete(snowflakeQueryBuffer.lastIndexOf(","), snowflakeQueryBuffer.length());
+        snowflakeQueryBuffer.append(");");
+        return snowflakeQueryBuffer.toString();
+    }
+
+    /**
+     * One field per non-null union branch, in declaration order. Branches are named by their logical type or simple type name, or by
+     * their full name when two branches share a simple name, e.g. records of the same name from different namespaces.
+     */
+    private static List<Field> splitBranchFields(String unionName, List<Schema> branchTypes, UnionStrategy unionStrategy,
+        Set<String> takenColumnNames) {
+        Map<Integer, String> branchNames = new LinkedHashMap<>();
+        Map<String, Long> branchNameCounts = new HashMap<>();
+        for (int i = 0; i < branchTypes.size(); i++) {
+            Schema branchType = branchTypes.get(i);
+            if (!branchType.equals(NULL_AVRO_SCHEMA)) {
+                String branchName = Optional.ofNullable(branchType.getLogicalType()).map(LogicalType::getName)
+                    .orElse(branchType.getName()).replaceAll("\\W", "_");
+                branchNames.put(i, branchName);
+                branchNameCounts.merge(branchName.toLowerCase(), 1L, Long::sum);
+            }
+        }
+
+        List<Field> branchFields = new ArrayList<>(branchNames.size());
+        branchNames.forEach((branchIndex, branchName) -> {
+            Schema branchType = branchTypes.get(branchIndex);
+            String uniqueBranchName = branchNameCounts.get(branchName.toLowerCase()) > 1 && branchType.getLogicalType() == null
+                ? branchType.getFullName().replaceAll("\\W", "_") : branchName;
+            branchFields.add(
+                new Field(unionStrategy.uniqueColumnName(unionName, uniqueBranchName, branchIndex, takenColumnNames), branchType));
+        });
+        return branchFields;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.drnushooz.schema.snowflake.converter.core.avro;
+
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverterProvider;
+
+public class AvroSchemaConverterProvider implements SchemaConverterProvider {
+
+    @Override
+    public String getSchemaType() {
+        return "AVRO";
+    }
+
+    @Override
+    public SchemaConverter create() {
+        return AvroSchemaConverter.getInstance();
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.drnushooz.schema.snowflake.converter.core.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConversionException;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import java.util.Map;
+import java.util.Objects;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JsonSchemaConverter implements SchemaConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonSchemaConverter.class);
+    private static final TypeReference<Map<String, Object>> STRING_OBJECT_MAP_TYPE = new TypeReference<>() {
+    };
+
+    private static class JsonSchemaConverterHolder {
+
+        public static final JsonSchemaConverter jsonSchemaConverter = new JsonSchemaConverter();
+    }
+
+    public static JsonSchemaConverter getInstance() {
+        return JsonSchemaConverterHolder.jsonSchemaConverter;
+    }
+
+    /**
+     * Generate Snowflake SQL table definition based on JSON schema. JSON schemas have no unions, so unionStrategy is ignored.
+     */
+    @Override
+    public String generate(String schema, UnionStrategy unionStrategy) throws SchemaConversionException {
+        try {
+            return generate(SingletonObjectMapper.getInstance().readTree(schema), unionStrategy);
+        } catch (JsonProcessingException e) {
+            throw new SchemaConversionException("JSON", e);
+        }
+    }
+
+    public String generate(JsonNode jsonSchema, UnionStrategy unionStrategy) {
+        ObjectMapper objectMapper = SingletonObjectMapper.getInstance();
+        @NonNull String title = jsonSchema.get("title").asText();
+        Map<String, Object> properties = objectMapper.convertValue(jsonSchema.get("properties"), STRING_OBJECT_MAP_TYPE);
+
+        StringBuilder snowflakeQueryBuffer = new StringBuilder();
+        snowflakeQueryBuffer.append("create table ").append(title).append("(");
+
+        for (String curPropName : properties.keySet()) {
+            Map<String, Object> valueMap = objectMapper.convertValue(properties.get(curPropName), STRING_OBJECT_MAP_TYPE);
+            String curPropType = Objects.requireNonNull(valueMap.get("type")).toString().toLowerCase();
+
+            switch (curPropType) {
+                case "boolean":
+                    snowflakeQueryBuffer.append(String.format(" %s boolean,", curPropName));
+                    break;
+
+                case "string":
+                    String fieldType = "string";
+                    if (valueMap.containsKey("maxLength")) {
+                        int maxLength = Integer.parseInt(valueMap.get("maxLength").toString());
+                        fieldType = String.format("varchar(%d)", maxLength);
+                    }
+                    snowflakeQueryBuffer.append(String.format(" %s %s,", curPropName, fieldType));
+                    break;
+
+                case "integer":
+                    snowflakeQueryBuffer.append(String.format(" %s int,", curPropName));
+                    break;
+
+                case "number":
+                    snowflakeQueryBuffer.append(String.format(" %s float,", curPropName));
+                    break;
+
+                case "object":
+                    snowflakeQueryBuffer.append(String.format(" %s object,", curPropName));
+                    break;
+
+                case "array":
+                    snowflakeQueryBuffer.append(String.format(" %s array,", curPropName));
+                    break;
+
+                case "":
+                    snowflakeQueryBuffer.append(String.format(" %s variant,", curPropName));
+                    break;
+
+                case "null":
+                    IllegalArgumentException iae =
+                        new IllegalArgumentException("Standalone null fields are not supported for JSON by this converter");
+                    logger.error(String.format("Exception while trying to parse field: %s", curPropName), iae);
+                    throw iae;
+
+                default:
+                    IllegalArgumentException exc =
+                        new IllegalArgumentException(String.format("Unknown type: %s for field: %s", curPropType, curPropName));
+                    logger.error(String.format("Exception while trying to parse JSON field: %s", curPropName), exc);
+                    throw exc;
+            }
+        }
+
+        int firstBracketPos = snowflakeQueryBuffer.indexOf("(");
+        snowflakeQueryBuffer.delete(firstBracketPos + 1, firstBracketPos + 2);
+        snowflakeQueryBuffer.delete(snowflakeQueryBuffer.lastIndexOf(","), snowflakeQueryBuffer.length());
+        snowflakeQueryBuffer.append(");");
+        return snowflakeQueryBuffer.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.drnushooz.schema.snowflake.converter.core.json;
+
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverterProvider;
+
+public class JsonSchemaConverterProvider implements SchemaConverterProvider {
+
+    @Override
+    public String getSchemaType() {
+        return "JSON";
+    }
+
+    @Override
+    public SchemaConverter create() {
+        return JsonSchemaConverter.getInstance();
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.drnushooz.schema.snowflake.converter.core.protobuf;
+
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConversionException;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.Type;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.Descriptors.OneofDescriptor;
+import com.squareup.wire.schema.internal.parser.ProtoFileElement;
+import com.squareup.wire.schema.internal.parser.ProtoParser;
+import io.apicurio.registry.utils.protobuf.schema.FileDescriptorUtils;
+import io.apicurio.registry.utils.protobuf.schema.ProtobufSchema;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ProtobufSchemaConverter implements SchemaConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProtobufSchemaConverter.class);
+
+    private static class ProtobufSchemaConverterHolder {
+
+        public static final ProtobufSchemaConverter protobufSchemaConverter = new ProtobufSchemaConverter();
+    }
+
+    public static ProtobufSchemaConverter getInstance() {
+        return ProtobufSchemaConverterHolder.protobufSchemaConverter;
+    }
+
+    /**
+     * Generate Snowflake SQL table definition based on Protobuf schema.
+     */
+    @Override
+    public String generate(String schema, UnionStrategy unionStrategy) throws SchemaConversionException {
+        try {
+            return generate(parse(schema), unionStrategy);
+        } catch (DescriptorValidationException e) {
+            throw new SchemaConversionException("Protobuf", e);
+        }
+    }
+
+    public static ProtobufSchema parse(String schema) throws DescriptorValidationException {
+        ProtoFileElement fileElement = ProtoParser.Companion.parse(FileDescriptorUtils.DEFAULT_LOCATION, schema);
+        FileDescriptor fileDescriptor = FileDescriptorUtils.protoFileToFileDescriptor(fileElement);
+        return new ProtobufSchema(fileDescriptor, fileElement);
+    }
+
+    public String generate(ProtobufSchema protobufSchema, UnionStrategy unionStrategy) {
+        FileDescriptor fileDescriptor = protobufSchema.getFileDescriptor();
+        int messageDescriptorCount = fileDescriptor.getMessageTypes().size();
+        if (messageDescriptorCount > 1) {
+            IllegalArgumentException iae = new IllegalArgumentException(
+                String.format("There should be only one outermost message type, found %d", messageDescriptorCount));
+            logger.error("Error in parsing protobuf schema", iae);
+            throw iae;
+        }
+
+        Descriptor outermostMessageType = fileDescriptor.getMessageTypes().get(0);
+        List<FieldDescriptor> fieldDescriptors =
+            outermostMessageType.getFields().stream().sorted(Comparator.comparingInt(FieldDescriptor::getNumber))
+                .collect(Collectors.toList());
+
+        StringBuilder snowflakeQueryBuffer = new StringBuilder();
+        snowflakeQueryBuffer.append("create table ").append(outermostMessageType.getName()).append("(");
+
+        // Split oneof columns must not clash with the fields outside of oneofs
+        Set<String> takenColumnNames = fieldDescriptors.stream().filter(field -> field.getRealContainingOneof() == null)
+            .map(field -> field.getName().toLowerCase()).collect(Collectors.toCollection(HashSet::new));
+
+        for (FieldDescriptor curField : fieldDescriptors) {
+            String curFieldName = curField.getName();
+            OneofDescriptor curOneof = curField.getRealContainingOneof();
+            if (curOneof != null && unionStrategy.isSplit()) {
+                curFieldName =
+                    unionStrategy.uniqueColumnName(curOneof.getName(), curField.getName(), curField.getNumber(), takenColumnNames);
+            }
+            Type curFieldType = curField.getType();
+            switch (curFieldType) {
+                case BOOL:
+                    snowflakeQueryBuffer.append(String.format(" %s boolean,", curFieldName));
+                    break;
+
+                case INT32:
+                case SINT32:
+                case UINT32:
+                case FIXED32:
+                case SFIXED32:
+                case INT64:
+                case SINT64:
+                case FIXED64:
+                case SFIXED64:
+                    snowflakeQueryBuffer.append(String.format(" %s int,", curFieldName));
+                    break;
+
+                case FLOAT:
+                    snowflakeQueryBuffer.append(String.format(" %s float,", curFieldName));
+                    break;
+
+                case DOUBLE:
+                    snowflakeQueryBuffer.append(String.format(" %s double,", curFieldName));
+                    break;
+
+                case STRING:
+                case BYTES:
+                case ENUM:
+                    snowflakeQueryBuffer.append(String.format(" %s string,", curFieldName));
+                    break;
+
+                default:
+                    if (curField.isRepeated()) {
+                        snowflakeQueryBuffer.append(String.format(" %s array,", curFieldName));
+                    } else if (curField.isMapField()) {
+                        snowflakeQueryBuffer.append(String.format(" %s variant,", curFieldName));
+                    } else {
+                        IllegalArgumentException iae =
+                            new IllegalArgumentException(String.format("Unknown type: %s for field: %s", curFieldType, curFieldName));
+                        logger.error(String.format("Exception while trying to parse protobuf field: %s", curFieldName), iae);
+                        throw iae;
+                    }
+            }
+        }
+
+        int firstBracketPos = snowflakeQueryBuffer.indexOf("(");
+        snowflakeQueryBuffer.delete(firstBracketPos + 1, firstBracketPos + 2);
+        snowflakeQueryBuffer.delete(snowflakeQueryBuffer.lastIndexOf(","), snowflakeQueryBuffer.length());
+        snowflakeQueryBuffer.append(");");
+        return snowflakeQueryBuffer.toString();
+    }
+}
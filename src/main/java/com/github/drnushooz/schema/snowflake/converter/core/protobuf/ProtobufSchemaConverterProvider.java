@@ -0,0 +1,17 @@
+package com.github.drnushooz.schema.snowflake.converter.core.protobuf;
+
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.SchemaConverterProvider;
+
+public class ProtobufSchemaConverterProvider implements SchemaConverterProvider {
+
+    @Override
+    public String getSchemaType() {
+        return "PROTOBUF";
+    }
+
+    @Override
+    public SchemaConverter create() {
+        return ProtobufSchemaConverter.getInstance();
+    }
+}
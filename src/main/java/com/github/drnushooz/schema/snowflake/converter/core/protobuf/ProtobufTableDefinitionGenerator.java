@@ -0,0 +1,32 @@
+package com.github.drnushooz.schema.snowflake.converter.core.protobuf;
+
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import io.apicurio.registry.utils.protobuf.schema.ProtobufSchema;
+
+/**
+ * Static entry points for Protobuf schemas, the counterpart of TableDefinitionGenerator. Kept apart from it so that builds without
+ * the Protobuf converter leave out every class which refers to the Protobuf libraries.
+ */
+public class ProtobufTableDefinitionGenerator {
+
+    /**
+     * Generate Snowflake SQL table definition based on Protobuf schema.
+     */
+    public static String generateFromProtobuf(String schema) throws DescriptorValidationException {
+        return generateFromProtobuf(schema, ConverterConfiguration.getUnionStrategy());
+    }
+
+    public static String generateFromProtobuf(String schema, UnionStrategy unionStrategy) throws DescriptorValidationException {
+        return ProtobufSchemaConverter.getInstance().generate(ProtobufSchemaConverter.parse(schema), unionStrategy);
+    }
+
+    public static String generateFromProtobuf(ProtobufSchema protobufSchema) {
+        return generateFromProtobuf(protobufSchema, ConverterConfiguration.getUnionStrategy());
+    }
+
+    public static String generateFromProtobuf(ProtobufSchema protobufSchema, UnionStrategy unionStrategy) {
+        return ProtobufSchemaConverter.getInstance().generate(protobufSchema, unionStrategy);
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.drnushooz.schema.snowflake.converter.http;
+
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ETags, conditional request matching and content encoding for responses derived from registry schemas. A schema id always
+ * refers to the same schema, so the generated table definition only changes with the id or the generator configuration.
+ */
+public class ResponseCaching {
+
+    // Only for responses looked up by schema id, a subject's versions can be deleted and registered again
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Bump whenever a converter change alters the table definition generated for an unchanged schema
+    private static final String GENERATOR_REVISION = "2";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    /**
+     * Strong ETag of the identity encoded response for a schema id.
+     */
+    public static String etag(int schemaId, UnionStrategy unionStrategy) {
+        return etag("id:" + schemaId, unionStrategy);
+    }
+
+    public static String etag(Schema schema, UnionStrategy unionStrategy) {
+        if (schema.getId() != null) {
+            return etag(schema.getId(), unionStrategy);
+        }
+        return etag(String.format("%s:%s", schema.getSchemaType(), schema.getSchema()), unionStrategy);
+    }
+
+    /**
+     * The gzip encoded response is a different representation and needs a different strong ETag.
+     */
+    public static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    public static String cacheControl(int maxAgeSeconds) {
+        return String.format("public, max-age=%d", maxAgeSeconds);
+    }
+
+    /**
+     * The entity tag from an If-None-Match header which matches etag in either content encoding, to be sent back with a 304.
+     * Uses weak comparison as RFC 7232 requires for If-None-Match.
+     */
+    public static Optional<String> matchingEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String entityTag = candidate.strip();
+            if (entityTag.equals("*")) {
+                return Optional.of(etag);
+            }
+            String opaqueTag = entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+            if (opaqueTag.equals(etag) || opaqueTag.equals(gzipEtag(etag))) {
+                return Optional.of(opaqueTag);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip, either by name or through * with a non-zero quality.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] codingParts = coding.split(";");
+            String codingName = codingParts[0].strip().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < codingParts.length; i++) {
+                String parameter = codingParts[i].strip();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (codingName.equals("gzip") || codingName.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (codingName.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return gzipQuality != null ? gzipQuality > 0 : wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    public static byte[] gzip(String body) {
+        ByteArrayOutputStream compressedStream = new ByteArrayOutputStream(body.length() / 4 + 64);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressedStream)) {
+            gzipStream.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+        return compressedStream.toByteArray();
+    }
+
+    /**
+     * Header lookup ignoring case, API Gateway passes header names on as the client sent them.
+     */
+    public static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        return headers.entrySet().stream().filter(e -> e.getKey().equalsIgnoreCase(name)).map(Map.Entry::getValue).findFirst()
+            .orElse(null);
+    }
+
+    private static String etag(String schemaFingerprint, UnionStrategy unionStrategy) {
+        String validator = String.join("\n", GENERATOR_REVISION, schemaFingerprint, unionStrategy.getMode().name(),
+            unionStrategy.getColumnNameFormat());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(validator.getBytes(StandardCharsets.UTF_8));
+            StringBuilder etagBuilder = new StringBuilder("\"");
+            for (int i = 0; i < 16; i++) {
+                etagBuilder.append(String.format("%02x", digest[i]));
+            }
+            return etagBuilder.append("\"").toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
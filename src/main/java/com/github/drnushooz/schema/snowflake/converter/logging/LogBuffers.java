@@ -0,0 +1,33 @@
+package com.github.drnushooz.schema.snowflake.converter.logging;
+
+import com.github.drnushooz.schema.snowflake.converter.runtime.SystemOutLambdaLogger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AsyncAppender;
+
+public class LogBuffers {
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    /**
+     * Wait for the async Log4j appenders to hand their queued events on, at most maxWaitMillis, and then write out the context logger
+     * buffer and stdout. Called before a result is reported, as Lambda may freeze the process right after it and never thaw it again.
+     * Log4j has no flush for async appenders, so an event its dispatcher thread is writing at that very moment can still be late.
+     */
+    public static void flush(long maxWaitMillis) {
+        long waitDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        for (Appender appender : LoggerContext.getContext(false).getConfiguration().getAppenders().values()) {
+            if (appender instanceof AsyncAppender) {
+                AsyncAppender asyncAppender = (AsyncAppender) appender;
+                while (asyncAppender.getQueueRemainingCapacity() < asyncAppender.getQueueCapacity()
+                    && System.nanoTime() < waitDeadlineNanos) {
+                    LockSupport.parkNanos(POLL_INTERVAL_NANOS);
+                }
+            }
+        }
+        SystemOutLambdaLogger.flush();
+        System.out.flush();
+    }
+}
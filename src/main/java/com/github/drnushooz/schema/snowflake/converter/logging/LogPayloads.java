@@ -0,0 +1,38 @@
+package com.github.drnushooz.schema.snowflake.converter.logging;
+
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class LogPayloads {
+
+    private static final int payloadMaxLength = ConverterConfiguration.getLogPayloadMaxLength();
+
+    /**
+     * Return the payload as is if it is short enough to log, otherwise its head followed by its length and a SHA-256 prefix so
+     * that identical payloads can still be correlated across log lines.
+     */
+    public static String summarize(CharSequence payload) {
+        if (payload.length() <= payloadMaxLength) {
+            return payload.toString();
+        }
+
+        return payload.subSequence(0, payloadMaxLength) + String.format("... [truncated, length=%d, sha256=%s]", payload.length(),
+            sha256Prefix(payload.toString()));
+    }
+
+    private static String sha256Prefix(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexBuilder = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hexBuilder.append(String.format("%02x", digest[i]));
+            }
+            return hexBuilder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.drnushooz.schema.snowflake.converter.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+/**
+ * Keeps a random fraction of the events of each level, e.g. rates="debug=0.01,info=0.1,error=0.5". Levels which are not listed are
+ * always kept. Used in front of the async appender so dropped events never reach the queue.
+ */
+@Plugin(name = "SamplingFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class SamplingFilter extends AbstractFilter {
+
+    private final Map<Level, Double> sampleRates;
+
+    private SamplingFilter(Map<Level, Double> sampleRates) {
+        super(Result.NEUTRAL, Result.DENY);
+        this.sampleRates = sampleRates;
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        double sampleRate = sampleRates.getOrDefault(event.getLevel(), 1.0);
+        if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return onMatch;
+        }
+        return onMismatch;
+    }
+
+    @Override
+    public String toString() {
+        return "rates=" + sampleRates;
+    }
+
+    @PluginFactory
+    public static SamplingFilter createFilter(@PluginAttribute("rates") String rates) {
+        Map<Level, Double> sampleRates = new HashMap<>();
+        if (rates != null) {
+            for (String levelRate : rates.split(",")) {
+                if (levelRate.isBlank()) {
+                    continue;
+                }
+                String[] levelAndRate = levelRate.split("=");
+                if (levelAndRate.length != 2) {
+                    throw new IllegalArgumentException(String.format("Invalid sample rate: %s, expected <level>=<rate>", levelRate));
+                }
+                sampleRates.put(Level.valueOf(levelAndRate[0].trim()), Double.parseDouble(levelAndRate[1].trim()));
+            }
+        }
+        return new SamplingFilter(sampleRates);
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.drnushooz.schema.snowflake.converter.registry;
+
+import com.github.drnushooz.schema.snowflake.converter.admission.Bulkhead;
+import com.github.drnushooz.schema.snowflake.converter.admission.BulkheadFullException;
+import com.github.drnushooz.schema.snowflake.converter.admission.Deadline;
+import com.github.drnushooz.schema.snowflake.converter.admission.DeadlineExceededException;
+import com.google.common.collect.ImmutableList;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spreads registry calls over several registry nodes. Calls go to the first node whose circuit is closed; when it takes longer
+ * than its recent hedgePercentile response time a duplicate is sent to the next node and the first answer wins. Nodes which fail
+ * are skipped over right away and taken out of rotation once their circuit opens.
+ *
+ * <p>Every attempt, hedges included, holds a registry bulkhead permit until its thread returns, not just until the call has an
+ * answer, so attempts stuck on a hung node count against admission and the attempt threads are bounded by the bulkhead size.
+ */
+public class HedgedRegistryClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedRegistryClient.class);
+    private static final int MAX_PARALLEL_ATTEMPTS = 2;
+    private static final AtomicInteger attemptThreadCounter = new AtomicInteger();
+
+    @Getter
+    private final ImmutableList<RegistryEndpoint> endpoints;
+
+    private final Bulkhead bulkhead;
+    private final double hedgePercentile;
+    private final long minHedgeDelayMillis;
+    private final ExecutorService attemptExecutor;
+
+    public HedgedRegistryClient(List<RegistryEndpoint> endpoints, Bulkhead bulkhead, double hedgePercentile, long minHedgeDelayMillis) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one schema registry endpoint is required");
+        }
+        this.endpoints = ImmutableList.copyOf(endpoints);
+        this.bulkhead = bulkhead;
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+        this.attemptExecutor = Executors.newFixedThreadPool(bulkhead.getMaxConcurrent(), r -> {
+            Thread thread = new Thread(r, "registry-attempt-" + attemptThreadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Execute a registry call, giving up with {@link DeadlineExceededException} once the deadline passes. Attempts still in flight
+     * once there is an answer are not interrupted, which would not abort their HTTP calls anyway; they finish within the registry
+     * timeouts and their answers are dropped. Shed with {@link BulkheadFullException} when there is no permit for
+     * the first attempt in time, or when every node's circuit is open.
+     */
+    public <T> T execute(RegistryCall<T> registryCall, Deadline deadline)
+        throws RestClientException, IOException, BulkheadFullException, DeadlineExceededException, InterruptedException {
+        deadline.check("calling the schema registry");
+        Iterator<RegistryEndpoint> candidates =
+            endpoints.stream().filter(RegistryEndpoint::isAvailable).collect(Collectors.toList()).iterator();
+        if (!candidates.hasNext()) {
+            throw bulkhead.rejection("Every schema registry node is unavailable, circuits are open");
+        }
+        if (endpoints.size() == 1 && !deadline.isBounded()) {
+            try (Bulkhead.Permit permit = bulkhead.acquire(deadline)) {
+                RegistryEndpoint endpoint = claimNextEndpoint(candidates)
+                    .orElseThrow(() -> bulkhead.rejection("The schema registry node is unavailable, circuit is open"));
+                return attempt(endpoint, registryCall).get();
+            }
+        }
+
+        BlockingQueue<Outcome<T>> outcomes = new LinkedBlockingQueue<>();
+        RegistryEndpoint lastEndpoint = null;
+        boolean hedging = true;
+        int outstanding = 0;
+        Outcome<T> lastFailure = null;
+        while (true) {
+            if (outstanding == 0) {
+                Bulkhead.Permit permit = bulkhead.acquire(deadline);
+                Optional<RegistryEndpoint> endpointOpt = claimNextEndpoint(candidates);
+                if (endpointOpt.isEmpty()) {
+                    permit.close();
+                    if (lastFailure != null) {
+                        return lastFailure.get();
+                    }
+                    throw bulkhead.rejection("Every schema registry node is unavailable, circuits are open");
+                }
+                lastEndpoint = endpointOpt.get();
+                submitAttempt(lastEndpoint, registryCall, outcomes, permit);
+                outstanding++;
+            }
+
+            Outcome<T> outcome;
+            if (hedging && candidates.hasNext() && outstanding < MAX_PARALLEL_ATTEMPTS) {
+                long hedgeDelayMillis =
+                    Math.max(minHedgeDelayMillis, lastEndpoint.latencyPercentile(hedgePercentile, minHedgeDelayMillis));
+                outcome = outcomes.poll(Math.min(hedgeDelayMillis, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+                if (outcome == null) {
+                    deadline.check(String.format("waiting for schema registry %s", lastEndpoint));
+                    // A hedge is optional work, so it only goes out if a permit is free right away
+                    Optional<Bulkhead.Permit> hedgePermitOpt = bulkhead.tryAcquire();
+                    Optional<RegistryEndpoint> hedgeEndpointOpt =
+                        hedgePermitOpt.isPresent() ? claimNextEndpoint(candidates) : Optional.empty();
+                    if (hedgeEndpointOpt.isPresent()) {
+                        logger.debug("No response from {} after {} ms, hedging to {}", lastEndpoint, hedgeDelayMillis,
+                            hedgeEndpointOpt.get());
+                        lastEndpoint = hedgeEndpointOpt.get();
+                        submitAttempt(lastEndpoint, registryCall, outcomes, hedgePermitOpt.get());
+                        outstanding++;
+                    } else {
+                        hedgePermitOpt.ifPresent(Bulkhead.Permit::close);
+                        hedging = false;
+                    }
+                    continue;
+                }
+            } else {
+                outcome = outcomes.poll(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+                if (outcome == null) {
+                    deadline.check("waiting for the schema registry");
+                    continue;
+                }
+            }
+
+            outstanding--;
+            if (outcome.isDefinitive()) {
+                return outcome.get();
+            }
+            logger.warn("Schema registry call to {} failed, trying the next endpoint", outcome.getEndpoint(), outcome.getFailure());
+            lastFailure = outcome;
+        }
+    }
+
+    private static Optional<RegistryEndpoint> claimNextEndpoint(Iterator<RegistryEndpoint> candidates) {
+        while (candidates.hasNext()) {
+            RegistryEndpoint candidate = candidates.next();
+            if (candidate.tryAcquireCall()) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The permit is released by the attempt itself, once its thread is done with the call.
+     */
+    private <T> void submitAttempt(RegistryEndpoint endpoint, RegistryCall<T> registryCall, BlockingQueue<Outcome<T>> outcomes,
+        Bulkhead.Permit permit) {
+        try {
+            attemptExecutor.execute(() -> {
+                try (permit) {
+                    outcomes.add(attempt(endpoint, registryCall));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private static <T> Outcome<T> attempt(RegistryEndpoint endpoint, RegistryCall<T> registryCall) {
+        long startMillis = System.currentTimeMillis();
+        try {
+            T result = registryCall.call(endpoint);
+            endpoint.recordSuccess(System.currentTimeMillis() - startMillis);
+            return new Outcome<>(endpoint, result, null, true);
+        } catch (Exception e) {
+            Exception failure = unwrap(e);
+            // Client errors such as an unknown subject are answers, not endpoint failures
+            boolean endpointFailure = !(failure instanceof RestClientException) || ((RestClientException) failure).getStatus() >= 500;
+            if (endpointFailure) {
+                endpoint.recordFailure();
+            } else {
+                endpoint.recordSuccess(System.currentTimeMillis() - startMillis);
+            }
+            return new Outcome<>(endpoint, null, failure, !endpointFailure);
+        }
+    }
+
+    /**
+     * Some SchemaRegistryClient methods, getByVersion among them, wrap RestClientException and IOException in RuntimeException.
+     */
+    private static Exception unwrap(Exception e) {
+        if (e instanceof RuntimeException && (e.getCause() instanceof RestClientException || e.getCause() instanceof IOException)) {
+            return (Exception) e.getCause();
+        }
+        return e;
+    }
+
+    @FunctionalInterface
+    public interface RegistryCall<T> {
+
+        T call(RegistryEndpoint endpoint) throws RestClientException, IOException;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class Outcome<T> {
+
+        private final RegistryEndpoint endpoint;
+        private final T result;
+        private final Exception failure;
+        private final boolean definitive;
+
+        T get() throws RestClientException, IOException {
+            if (failure == null) {
+                return result;
+            } else if (failure instanceof RestClientException) {
+                throw (RestClientException) failure;
+            } else if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw new IOException(failure);
+        }
+    }
+}
@@ -1,36 +1,66 @@
 package com.github.drnushooz.schema.snowflake.converter.registry;
 
+import com.github.drnushooz.schema.snowflake.converter.admission.AdmissionControl;
+import com.github.drnushooz.schema.snowflake.converter.admission.BulkheadFullException;
+import com.github.drnushooz.schema.snowflake.converter.admission.Deadline;
+import com.github.drnushooz.schema.snowflake.converter.admission.DeadlineExceededException;
 import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
-import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
-import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class RegistryClient {
 
     private static final Logger logger = LoggerFactory.getLogger(RegistryClient.class);
-    private static final String schemaRegistryURL = ConverterConfiguration.getSchemaRegistryURL();
+    private static final List<String> schemaRegistryURLs = ConverterConfiguration.getSchemaRegistryURLs();
     private static final int schemaRegistryCacheSize = ConverterConfiguration.getSchemaRegistryCacheSize();
+    private static final int schemaRegistryIdCacheSize = ConverterConfiguration.getSchemaRegistryIdCacheSize();
 
-    public static Schema getSchemaFromRegistry(String subject) throws RestClientException, IOException {
+    // Schemas never change once registered, so entries stay until evicted to bound memory
+    private static final Map<Integer, Schema> schemasById =
+        Collections.synchronizedMap(new LinkedHashMap<Integer, Schema>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Schema> eldest) {
+                return size() > schemaRegistryIdCacheSize;
+            }
+        });
+
+    public static Schema getSchemaFromRegistry(String subject)
+        throws RestClientException, IOException, BulkheadFullException, DeadlineExceededException, InterruptedException {
         return getSchemaFromRegistry(subject, null);
     }
 
-    public static Schema getSchemaFromRegistry(String subject, Integer version) throws RestClientException, IOException {
+    public static Schema getSchemaFromRegistry(String subject, Integer version)
+        throws RestClientException, IOException, BulkheadFullException, DeadlineExceededException, InterruptedException {
+        return getSchemaFromRegistry(subject, version, Deadline.NONE);
+    }
+
+    public static Schema getSchemaFromRegistry(String subject, Integer version, Deadline deadline)
+        throws RestClientException, IOException, BulkheadFullException, DeadlineExceededException, InterruptedException {
         if (ConverterConfiguration.isSchemaRegistryEnabled()) {
-            SchemaRegistryClient registryClient = SchemaRegistryClientHolder.INSTANCE;
+            HedgedRegistryClient registryClient = HedgedRegistryClientHolder.INSTANCE;
+            // Registry bulkhead permits are taken per attempt by the hedged client
             Schema schemaFromRegistry;
             if (version == null || version == 0) {
                 logger.info("Getting schema for subject: {} version: latest", subject);
-                SchemaMetadata metadata = registryClient.getLatestSchemaMetadata(subject);
-                schemaFromRegistry = registryClient.getByVersion(subject, metadata.getVersion(), false);
+                schemaFromRegistry = registryClient.execute(endpoint -> {
+                    SchemaMetadata metadata = endpoint.getClient().getLatestSchemaMetadata(subject);
+                    return endpoint.getClient().getByVersion(subject, metadata.getVersion(), false);
+                }, deadline);
             } else {
                 logger.info("Getting schema for subject: {} version: {}", subject, version);
-                schemaFromRegistry = registryClient.getByVersion(subject, version, false);
+                schemaFromRegistry = registryClient.execute(endpoint -> endpoint.getClient().getByVersion(subject, version, false),
+                    deadline);
             }
             return schemaFromRegistry;
         } else {
@@ -38,12 +68,50 @@ public class RegistryClient {
         }
     }
 
-    private static class SchemaRegistryClientHolder {
+    /**
+     * Get a schema by its globally unique id. Unlike lookups by subject this needs no metadata round-trip and is served from cache
+     * after the first call.
+     */
+    public static Schema getSchemaById(int schemaId)
+        throws RestClientException, IOException, BulkheadFullException, DeadlineExceededException, InterruptedException {
+        return getSchemaById(schemaId, Deadline.NONE);
+    }
+
+    public static Schema getSchemaById(int schemaId, Deadline deadline)
+        throws RestClientException, IOException, BulkheadFullException, DeadlineExceededException, InterruptedException {
+        if (ConverterConfiguration.isSchemaRegistryEnabled()) {
+            Schema cachedSchema = schemasById.get(schemaId);
+            if (cachedSchema != null) {
+                return cachedSchema;
+            }
+
+            HedgedRegistryClient registryClient = HedgedRegistryClientHolder.INSTANCE;
+            logger.info("Getting schema for id: {}", schemaId);
+            // SchemaRegistryClient.getSchemaById can only parse schema types with a provider on the classpath, which is Avro only
+            SchemaString schemaString = registryClient.execute(endpoint -> endpoint.getRestService().getId(schemaId), deadline);
+            Schema schemaFromRegistry = new Schema(null, null, schemaId,
+                Optional.ofNullable(schemaString.getSchemaType()).orElse("AVRO"), schemaString.getReferences(),
+                schemaString.getSchemaString());
+            schemasById.put(schemaId, schemaFromRegistry);
+            return schemaFromRegistry;
+        } else {
+            return null;
+        }
+    }
+
+    private static class HedgedRegistryClientHolder {
 
-        public static final SchemaRegistryClient INSTANCE = new CachedSchemaRegistryClient(schemaRegistryURL, schemaRegistryCacheSize);
+        public static final HedgedRegistryClient INSTANCE = new HedgedRegistryClient(
+            schemaRegistryURLs.stream()
+                .map(url -> new RegistryEndpoint(url, schemaRegistryCacheSize, ConverterConfiguration.getRegistryCircuitFailureThreshold(),
+                    ConverterConfiguration.getRegistryCircuitOpenMillis(), ConverterConfiguration.getRegistryConnectTimeoutMillis(),
+                    ConverterConfiguration.getRegistryReadTimeoutMillis()))
+                .collect(Collectors.toList()),
+            AdmissionControl.forRegistry(), ConverterConfiguration.getRegistryHedgePercentile(),
+            ConverterConfiguration.getRegistryHedgeMinDelayMillis());
 
         static {
-            logger.info("Initializing schema registry client to {} with cache size {}", schemaRegistryURL, schemaRegistryCacheSize);
+            logger.info("Initializing schema registry clients to {} with cache size {}", schemaRegistryURLs, schemaRegistryCacheSize);
         }
     }
 }
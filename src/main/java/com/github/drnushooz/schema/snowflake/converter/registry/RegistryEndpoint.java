@@ -0,0 +1,114 @@
+package com.github.drnushooz.schema.snowflake.converter.registry;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientConfig;
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * One schema registry node with its own client cache, a window of recent response times and a simple circuit breaker which
+ * opens after a number of consecutive failures. Once an open circuit has waited openMillis a single trial call is let through;
+ * its outcome closes the circuit or opens it again.
+ */
+public class RegistryEndpoint {
+
+    private static final int LATENCY_WINDOW_SIZE = 128;
+    private static final int MIN_LATENCY_SAMPLES = 16;
+
+    @Getter
+    private final String url;
+
+    @Getter
+    private final RestService restService;
+
+    @Getter
+    private final SchemaRegistryClient client;
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long[] latencyWindow = new long[LATENCY_WINDOW_SIZE];
+    private int latencySampleCount;
+    private int nextLatencySlot;
+    private int consecutiveFailures;
+    private long openUntilMillis;
+    private boolean trialInFlight;
+
+    /**
+     * Interrupting a call does not abort a blocked HTTP connection, so every call is bounded by the connect and read timeouts
+     * instead; a call abandoned by a hedge or a deadline keeps its thread until then.
+     */
+    public RegistryEndpoint(String url, int cacheSize, int failureThreshold, long openMillis, int connectTimeoutMillis,
+        int readTimeoutMillis) {
+        this.url = url;
+        this.restService = new RestService(url);
+        this.client = new CachedSchemaRegistryClient(restService, cacheSize, ImmutableMap.of(
+            SchemaRegistryClientConfig.HTTP_CONNECT_TIMEOUT_MS, connectTimeoutMillis,
+            SchemaRegistryClientConfig.HTTP_READ_TIMEOUT_MS, readTimeoutMillis));
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Whether a call could be sent now: the circuit is closed, or it has been open long enough and no trial call is running.
+     */
+    public synchronized boolean isAvailable() {
+        return isClosed() || (System.currentTimeMillis() >= openUntilMillis && !trialInFlight);
+    }
+
+    /**
+     * Claim the right to send a call. Always granted while the circuit is closed; afterwards only to the single trial call.
+     */
+    public synchronized boolean tryAcquireCall() {
+        if (isClosed()) {
+            return true;
+        }
+        if (System.currentTimeMillis() < openUntilMillis || trialInFlight) {
+            return false;
+        }
+        trialInFlight = true;
+        return true;
+    }
+
+    public synchronized void recordSuccess(long latencyMillis) {
+        latencyWindow[nextLatencySlot] = latencyMillis;
+        nextLatencySlot = (nextLatencySlot + 1) % LATENCY_WINDOW_SIZE;
+        latencySampleCount = Math.min(latencySampleCount + 1, LATENCY_WINDOW_SIZE);
+        consecutiveFailures = 0;
+        openUntilMillis = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            openUntilMillis = System.currentTimeMillis() + openMillis;
+        }
+        trialInFlight = false;
+    }
+
+    private boolean isClosed() {
+        return consecutiveFailures < failureThreshold;
+    }
+
+    /**
+     * Response time percentile over the recent window, or defaultMillis while there are too few samples to tell.
+     */
+    public synchronized long latencyPercentile(double percentile, long defaultMillis) {
+        int sampleCount = latencySampleCount;
+        if (sampleCount < MIN_LATENCY_SAMPLES) {
+            return defaultMillis;
+        }
+        long[] sorted = Arrays.copyOf(latencyWindow, sampleCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sampleCount);
+        return sorted[Math.max(0, Math.min(sampleCount, rank) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.drnushooz.schema.snowflake.converter.registry;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Reads the header of messages serialized in the Confluent wire format: a zero magic byte followed by the 4 byte big-endian
+ * schema id.
+ */
+public class WireFormat {
+
+    public static final byte MAGIC_BYTE = 0x0;
+    public static final int HEADER_SIZE = 5;
+
+    // 8 base64 characters decode to 6 bytes, enough for the header without decoding the rest of the message
+    private static final int BASE64_HEADER_LENGTH = 8;
+
+    public static int extractSchemaId(byte[] message) {
+        if (message.length < HEADER_SIZE) {
+            throw new IllegalArgumentException(
+                String.format("Message is %d bytes long, too short for a %d byte wire format header", message.length, HEADER_SIZE));
+        }
+        if (message[0] != MAGIC_BYTE) {
+            throw new IllegalArgumentException(String.format("Unknown magic byte: 0x%02x", message[0]));
+        }
+        return ByteBuffer.wrap(message, 1, 4).getInt();
+    }
+
+    /**
+     * Extract the schema id from a base64 encoded message, decoding only its first few characters. Both the standard and the URL
+     * and file name safe alphabet are accepted, with or without padding.
+     */
+    public static int extractSchemaId(String base64Message) {
+        String trimmedMessage = base64Message.strip();
+        String header = trimmedMessage.length() > BASE64_HEADER_LENGTH ? trimmedMessage.substring(0, BASE64_HEADER_LENGTH) : trimmedMessage;
+        return extractSchemaId(Base64.getDecoder().decode(header.replace('-', '+').replace('_', '/')));
+    }
+}
@@ -4,7 +4,9 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
 import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.logging.LogBuffers;
 import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -84,6 +86,7 @@ public class CustomLambdaRuntime {
                 HttpRequest errorReportingRequest =
                     HttpRequest.newBuilder(URI.create(errorReportingUrl))
                         .POST(BodyPublishers.ofString(objectMapper.writeValueAsString(errorEvent))).build();
+                LogBuffers.flush(ConverterConfiguration.getLogFlushTimeoutMillis());
                 httpClient.send(errorReportingRequest, BodyHandlers.discarding());
             }
         }
@@ -114,7 +117,9 @@ public class CustomLambdaRuntime {
                     Optional<String> xrayTraceIdOpt = eventHeaders.firstValue("Lambda-Runtime-Trace-Id");
                     xrayTraceIdOpt.ifPresent(xrayTraceId -> System.setProperty("com.amazonaws.xray.traceHeader", xrayTraceId));
 
-                    contextOpt = Optional.of(new CustomRuntimeContext(awsRequestIdRef.get()));
+                    long deadlineEpochMillis = parseDeadline(eventHeaders.firstValue("Lambda-Runtime-Deadline-Ms"));
+
+                    contextOpt = Optional.of(new CustomRuntimeContext(awsRequestIdRef.get(), deadlineEpochMillis));
                     eventBodyOpt = Optional.ofNullable(eventResponse.body());
                 }
 
@@ -130,6 +135,8 @@ public class CustomLambdaRuntime {
                     HttpRequest eventResultRequest =
                         HttpRequest.newBuilder().uri(URI.create(eventResponseUrl)).header("Content-Type", "application/json")
                             .POST(BodyPublishers.ofString(objectMapper.writeValueAsString(lambdaResponseEvent))).build();
+                    // Lambda may freeze the process as soon as it has the response, before buffered log lines are written
+                    LogBuffers.flush(ConverterConfiguration.getLogFlushTimeoutMillis());
                     httpClient.send(eventResultRequest, BodyHandlers.discarding());
                 }
             } while (!isSingleLoop);
@@ -147,8 +154,24 @@ public class CustomLambdaRuntime {
                 errorEvent.withStatusCode(500).withBody(logMessage).withIsBase64Encoded(false);
                 HttpRequest errorReportingRequest = HttpRequest.newBuilder(URI.create(errorReportingUrl))
                     .POST(BodyPublishers.ofString(objectMapper.writeValueAsString(errorEvent))).build();
+                LogBuffers.flush(ConverterConfiguration.getLogFlushTimeoutMillis());
                 httpClient.send(errorReportingRequest, BodyHandlers.discarding());
             }
         }
     }
+
+    /**
+     * A missing or malformed deadline header must not end the runtime loop, the invocation just runs without a deadline.
+     */
+    private static long parseDeadline(Optional<String> deadlineHeaderOpt) {
+        if (deadlineHeaderOpt.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(deadlineHeaderOpt.get().strip());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed Lambda-Runtime-Deadline-Ms header: {}", deadlineHeaderOpt.get());
+            return Long.MAX_VALUE;
+        }
+    }
 }
@@ -15,6 +15,11 @@ public class CustomRuntimeContext implements Context {
     @NonNull
     private final String awsRequestId;
 
+    /**
+     * From the Lambda-Runtime-Deadline-Ms header, Long.MAX_VALUE when the invocation has no deadline.
+     */
+    private final long deadlineEpochMillis;
+
     @Getter
     private final LambdaLogger logger = new SystemOutLambdaLogger();
 
@@ -55,7 +60,10 @@ public class CustomRuntimeContext implements Context {
 
     @Override
     public int getRemainingTimeInMillis() {
-        throw new UnsupportedOperationException();
+        if (deadlineEpochMillis == Long.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, deadlineEpochMillis - System.currentTimeMillis()));
     }
 
     @Override
@@ -1,19 +1,118 @@
 package com.github.drnushooz.schema.snowflake.converter.runtime;
 
 import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import com.google.common.collect.ImmutableMap;
 import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+/**
+ * Writes one JSON object per message to stdout. Messages go through a bounded buffer drained by a background thread, so callers
+ * never wait on stdout; when the buffer is full messages are dropped and the number of dropped messages is logged instead. The
+ * runtime calls {@link #flush()} before it reports a result, because Lambda freezes the process as soon as it has the result.
+ */
 @NoArgsConstructor
 public class SystemOutLambdaLogger implements LambdaLogger {
 
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    private static volatile boolean used;
+
     @Override
     public void log(final String message) {
-        System.out.println(message);
+        used = true;
+        if (!LogWriterHolder.pendingLines.offer(new LogLine(System.currentTimeMillis(), message))) {
+            LogWriterHolder.droppedLines.incrementAndGet();
+        }
+        LockSupport.unpark(LogWriterHolder.writerThread);
     }
 
     @Override
     public void log(final byte[] message) {
         log(new String(message, Charset.defaultCharset()));
     }
+
+    /**
+     * Write out and flush every message logged so far, on the calling thread.
+     */
+    public static void flush() {
+        if (used) {
+            LogWriterHolder.drain();
+        }
+    }
+
+    @AllArgsConstructor
+    private static class LogLine {
+
+        private final long timestampMillis;
+        private final String message;
+    }
+
+    private static class LogWriterHolder {
+
+        private static final ObjectMapper objectMapper = SingletonObjectMapper.getInstance();
+        private static final BlockingQueue<LogLine> pendingLines = new ArrayBlockingQueue<>(ConverterConfiguration.getLogBufferSize());
+        private static final AtomicLong droppedLines = new AtomicLong();
+
+        private static final Thread writerThread = new Thread(LogWriterHolder::drainForever, "lambda-logger");
+
+        static {
+            writerThread.setDaemon(true);
+            writerThread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(LogWriterHolder::drain, "lambda-logger-shutdown"));
+        }
+
+        /**
+         * Lines only leave the buffer inside drain, so once a flush holds the lock no line can be taken but not yet written.
+         */
+        private static void drainForever() {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (pendingLines.isEmpty()) {
+                    LockSupport.park(LogWriterHolder.class);
+                } else {
+                    drain();
+                }
+            }
+        }
+
+        private static synchronized void drain() {
+            List<LogLine> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+            while (pendingLines.drainTo(batch, DRAIN_BATCH_SIZE) > 0) {
+                for (LogLine logLine : batch) {
+                    writeLine(logLine);
+                }
+                batch.clear();
+            }
+
+            long dropped = droppedLines.getAndSet(0);
+            if (dropped > 0) {
+                writeLine(new LogLine(System.currentTimeMillis(), String.format("Dropped %d log messages, buffer full", dropped)));
+            }
+            System.out.flush();
+        }
+
+        /**
+         * One println per line, which System.out writes under its lock, so lines Log4j writes to stdout cannot end up in the
+         * middle of it however long it is.
+         */
+        private static void writeLine(LogLine logLine) {
+            try {
+                System.out.println(objectMapper.writeValueAsString(
+                    ImmutableMap.of("timestamp", Instant.ofEpochMilli(logLine.timestampMillis).toString(), "message", logLine.message)));
+            } catch (JsonProcessingException e) {
+                System.err.println("Could not write log message to stdout: " + e.getMessage());
+            }
+        }
+    }
 }
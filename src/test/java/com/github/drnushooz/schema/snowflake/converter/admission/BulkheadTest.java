@@ -0,0 +1,69 @@
+package com.github.drnushooz.schema.snowflake.converter.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class BulkheadTest {
+
+    @Test
+    void testPermitsAreReleased() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 0, 429, 1);
+        try (Bulkhead.Permit permit = bulkhead.acquire()) {
+            assertEquals(0, bulkhead.getAvailablePermits());
+        }
+        assertEquals(1, bulkhead.getAvailablePermits());
+        bulkhead.acquire().close();
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 1000, 503, 7);
+        try (Bulkhead.Permit permit = bulkhead.acquire()) {
+            BulkheadFullException e = assertThrows(BulkheadFullException.class, bulkhead::acquire);
+            assertEquals(503, e.getStatusCode());
+            assertEquals(7, e.getRetryAfterSeconds());
+        }
+    }
+
+    @Test
+    void testQueuedCallerGetsReleasedPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 5000, 429, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Bulkhead.Permit permit = bulkhead.acquire();
+            CountDownLatch waiting = new CountDownLatch(1);
+            Future<?> queuedCall = executor.submit(() -> {
+                waiting.countDown();
+                bulkhead.acquire().close();
+                return null;
+            });
+            waiting.await();
+            while (bulkhead.getQueued() == 0) {
+                Thread.sleep(1);
+            }
+            assertThrows(BulkheadFullException.class, () -> bulkhead.acquire(0));
+            permit.close();
+            queuedCall.get(5, TimeUnit.SECONDS);
+            assertEquals(1, bulkhead.getAvailablePermits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTimesOutWaitingForPermit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 20, 429, 1);
+        try (Bulkhead.Permit permit = bulkhead.acquire()) {
+            assertThrows(BulkheadFullException.class, bulkhead::acquire);
+            assertEquals(0, bulkhead.getQueued());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.drnushooz.schema.snowflake.converter.apply;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.drnushooz.schema.snowflake.converter.admission.Deadline;
+import com.github.drnushooz.schema.snowflake.converter.apply.StatementResult.Status;
+import com.github.drnushooz.schema.snowflake.converter.core.TableDefinitionGenerator;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DdlApplierTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void createDatabase() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void testApplyIsIdempotent() throws Exception {
+        String person = TableDefinitionGenerator.generateFromJSON("{\"title\": \"Person\", \"properties\": {"
+            + "\"name\": {\"type\": \"string\", \"maxLength\": 32}, \"age\": {\"type\": \"integer\"}}}");
+        String evolvedPerson = TableDefinitionGenerator.generateFromJSON("{\"title\": \"Person\", \"properties\": {"
+            + "\"name\": {\"type\": \"string\", \"maxLength\": 32}, \"age\": {\"type\": \"integer\"}, "
+            + "\"active\": {\"type\": \"boolean\"}}}");
+        DdlApplier ddlApplier = new DdlApplier(dataSource, 2, 2, false);
+
+        List<StatementResult> results = ddlApplier.apply(Map.of("sales", List.of(person), "hr", List.of(person)));
+        assertEquals(4, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.APPLIED), results.toString());
+        assertEquals(2, countColumns("SALES", "PERSON"));
+
+        // Only the schemas are created again, the tables already have every column
+        results = ddlApplier.apply(Map.of("sales", List.of(person), "hr", List.of(person)));
+        assertEquals(List.of("create schema if not exists hr", "create schema if not exists sales"),
+            results.stream().map(StatementResult::getStatement).sorted().collect(Collectors.toList()));
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.APPLIED), results.toString());
+
+        results = ddlApplier.apply(Map.of("sales", List.of(evolvedPerson)));
+        assertEquals(2, results.size());
+        assertTrue(results.get(1).getStatement().startsWith("alter table sales.person add column if not exists active "),
+            results.toString());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.APPLIED), results.toString());
+        assertEquals(3, countColumns("SALES", "PERSON"));
+        assertEquals(2, countColumns("HR", "PERSON"));
+    }
+
+    @Test
+    void testFailedStatementsAreReported() throws Exception {
+        DdlApplier ddlApplier = new DdlApplier(dataSource, 1, 10, false);
+        List<StatementResult> results =
+            ddlApplier.apply(Map.of("ops", List.of("create table broken(a nosuchtype);", "create table fine(a int, b varchar(10));")));
+
+        assertEquals(List.of(Status.APPLIED, Status.FAILED, Status.APPLIED),
+            results.stream().map(StatementResult::getStatus).collect(Collectors.toList()));
+        assertEquals("create table if not exists ops.fine(a int, b varchar(10))", results.get(2).getStatement());
+        assertEquals(2, countColumns("OPS", "FINE"));
+    }
+
+    @Test
+    void testFailedMultiStatementIsNotReportedAsApplied() throws Exception {
+        DdlApplier ddlApplier = new DdlApplier(dataSource, 1, 10, true);
+        List<StatementResult> results =
+            ddlApplier.apply(Map.of("ops", List.of("create table fine(a int);", "create table broken(a nosuchtype);")));
+
+        assertEquals(List.of(Status.APPLIED, Status.APPLIED, Status.FAILED),
+            results.stream().map(StatementResult::getStatus).collect(Collectors.toList()));
+        assertEquals("create table if not exists ops.broken(a nosuchtype)", results.get(2).getStatement());
+        assertEquals(1, countColumns("OPS", "FINE"));
+    }
+
+    @Test
+    void testExpiredDeadlineSkipsStatements() throws Exception {
+        DdlApplier ddlApplier = new DdlApplier(dataSource, 1, 10, false);
+        List<StatementResult> results =
+            ddlApplier.apply(Map.of("ops", List.of("create table fine(a int);")), Deadline.at(System.currentTimeMillis() - 1));
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == Status.SKIPPED), results.toString());
+        assertEquals(0, countColumns("OPS", "FINE"));
+    }
+
+    private int countColumns(String schemaName, String tableName) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery(String.format(
+                "select count(*) from information_schema.columns where table_schema = '%s' and table_name = '%s'", schemaName,
+                tableName))) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.drnushooz.schema.snowflake.converter.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.drnushooz.schema.snowflake.converter.core.avro.AvroSchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.json.JsonSchemaConverter;
+import com.github.drnushooz.schema.snowflake.converter.core.protobuf.ProtobufSchemaConverter;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class SchemaConvertersTest {
+
+    @Test
+    void testForSchemaType() {
+        assertEquals(Set.of("AVRO", "JSON", "PROTOBUF"), SchemaConverters.getSupportedSchemaTypes());
+        assertInstanceOf(AvroSchemaConverter.class, SchemaConverters.forSchemaType("AVRO"));
+        assertInstanceOf(JsonSchemaConverter.class, SchemaConverters.forSchemaType("json"));
+        assertInstanceOf(ProtobufSchemaConverter.class, SchemaConverters.forSchemaType("Protobuf"));
+        assertSame(SchemaConverters.forSchemaType("avro"), SchemaConverters.forSchemaType("AVRO"));
+        assertThrows(IllegalArgumentException.class, () -> SchemaConverters.forSchemaType("xml"));
+    }
+
+    @Test
+    void testGenerate() throws Exception {
+        String protobufSchema = "message Snack {\n"
+            + "\t\trequired string name = 1;\n"
+            + "\t\toptional float calories = 2;\n"
+            + "\t}";
+        assertEquals("create table Snack(name string, calories float);",
+            SchemaConverters.forSchemaType("PROTOBUF").generate(protobufSchema, UnionStrategy.VARIANT));
+    }
+}
@@ -2,8 +2,10 @@ package com.github.drnushooz.schema.snowflake.converter.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.drnushooz.schema.snowflake.converter.core.protobuf.ProtobufTableDefinitionGenerator;
 import com.github.drnushooz.schema.snowflake.converter.registry.RegistryClient;
 import com.google.protobuf.Descriptors.DescriptorValidationException;
 import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
@@ -66,8 +68,89 @@ public class TableDefinitionGeneratorTest {
             + "\t\toptional string city = 4;\n"
             + "\t\toptional int32 zipcode = 5;\n"
             + "\t}";
-        String result = TableDefinitionGenerator.generateFromProtobuf(protobufSchema);
+        String result = ProtobufTableDefinitionGenerator.generateFromProtobuf(protobufSchema);
         assertNotNull(result);
         assertEquals(4, StringUtils.countMatches(result, ","));
     }
+
+    @Test
+    void testGenerateFromAvroWithSplitUnions() {
+        String avroSchema = "{\n"
+            + "\t\t\"type\": \"record\",\n"
+            + "\t\t\"name\": \"payment\",\n"
+            + "\t\t\"fields\": [\n"
+            + "\t\t\t{\"name\": \"id\", \"type\": \"string\"},\n"
+            + "\t\t\t{\"name\": \"amount\", \"type\": [\"null\", \"long\", \"string\"]},\n"
+            + "\t\t\t{\"name\": \"note\", \"type\": [\"null\", \"string\"], \"default\": null}\n"
+            + "\t\t]\n"
+            + "\t}";
+        assertEquals("create table payment(id string, amount variant, note string);",
+            TableDefinitionGenerator.generateFromAvro(avroSchema, UnionStrategy.VARIANT));
+        assertEquals("create table payment(id string, amount_long bigint, amount_string string, note string);",
+            TableDefinitionGenerator.generateFromAvro(avroSchema, UnionStrategy.split()));
+        assertEquals("create table payment(id string, amount__as_long bigint, amount__as_string string, note string);",
+            TableDefinitionGenerator.generateFromAvro(avroSchema, UnionStrategy.split("{0}__as_{1}")));
+    }
+
+    @Test
+    void testSplitColumnNameFormatIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> UnionStrategy.split("{0}.{1}"));
+        assertThrows(IllegalArgumentException.class, () -> UnionStrategy.split("{0} {1}"));
+        assertThrows(IllegalArgumentException.class, () -> UnionStrategy.split("{0}_value"));
+        assertEquals("amount_as_long", UnionStrategy.split("{0}_as_{1}").columnName("amount", "long"));
+    }
+
+    @Test
+    void testGenerateFromAvroWithNestedRecord() {
+        String avroSchema = "{\n"
+            + "\t\t\"type\": \"record\",\n"
+            + "\t\t\"name\": \"order\",\n"
+            + "\t\t\"fields\": [\n"
+            + "\t\t\t{\"name\": \"id\", \"type\": \"string\"},\n"
+            + "\t\t\t{\"name\": \"customer\", \"type\": {\"type\": \"record\", \"name\": \"customer\",\n"
+            + "\t\t\t\t\"fields\": [{\"name\": \"name\", \"type\": \"string\"}]}},\n"
+            + "\t\t\t{\"name\": \"shipping\", \"type\": [\"null\", {\"type\": \"record\", \"name\": \"address\",\n"
+            + "\t\t\t\t\"fields\": [{\"name\": \"street\", \"type\": \"string\"}]}], \"default\": null}\n"
+            + "\t\t]\n"
+            + "\t}";
+        // Nested records are kept whole as semi-structured columns, whatever the union strategy
+        String expected = "create table order(id string, customer object, shipping object);";
+        assertEquals(expected, TableDefinitionGenerator.generateFromAvro(avroSchema, UnionStrategy.VARIANT));
+        assertEquals(expected, TableDefinitionGenerator.generateFromAvro(avroSchema, UnionStrategy.split()));
+    }
+
+    @Test
+    void testGenerateFromAvroWithSplitUnionNameCollisions() {
+        String avroSchema = "{\n"
+            + "\t\t\"type\": \"record\",\n"
+            + "\t\t\"name\": \"shipment\",\n"
+            + "\t\t\"fields\": [\n"
+            + "\t\t\t{\"name\": \"location\", \"type\": [\"null\",\n"
+            + "\t\t\t\t{\"type\": \"record\", \"name\": \"address\", \"namespace\": \"home\",\n"
+            + "\t\t\t\t\t\"fields\": [{\"name\": \"street\", \"type\": \"string\"}]},\n"
+            + "\t\t\t\t{\"type\": \"record\", \"name\": \"address\", \"namespace\": \"work\",\n"
+            + "\t\t\t\t\t\"fields\": [{\"name\": \"street\", \"type\": \"string\"}]}]},\n"
+            + "\t\t\t{\"name\": \"amount\", \"type\": [\"long\", \"string\"]},\n"
+            + "\t\t\t{\"name\": \"amount_long\", \"type\": \"long\"}\n"
+            + "\t\t]\n"
+            + "\t}";
+        assertEquals("create table shipment(location_home_address object, location_work_address object, amount_long_0 bigint, "
+                + "amount_string string, amount_long bigint);",
+            TableDefinitionGenerator.generateFromAvro(avroSchema, UnionStrategy.split()));
+    }
+
+    @Test
+    void testGenerateFromProtobufWithSplitOneofs() throws DescriptorValidationException {
+        String protobufSchema = "message Payment {\n"
+            + "\t\trequired string id = 1;\n"
+            + "\t\toneof amount {\n"
+            + "\t\t\tint64 cents = 2;\n"
+            + "\t\t\tstring text = 3;\n"
+            + "\t\t}\n"
+            + "\t}";
+        assertEquals("create table Payment(id string, cents int, text string);",
+            ProtobufTableDefinitionGenerator.generateFromProtobuf(protobufSchema, UnionStrategy.VARIANT));
+        assertEquals("create table Payment(id string, amount_cents int, amount_text string);",
+            ProtobufTableDefinitionGenerator.generateFromProtobuf(protobufSchema, UnionStrategy.split()));
+    }
 }
@@ -0,0 +1,60 @@
+package com.github.drnushooz.schema.snowflake.converter.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.drnushooz.schema.snowflake.converter.core.UnionStrategy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+public class ResponseCachingTest {
+
+    @Test
+    void testEtag() {
+        String etag = ResponseCaching.etag(42, UnionStrategy.VARIANT);
+        assertEquals(etag, ResponseCaching.etag(42, UnionStrategy.VARIANT));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertNotEquals(etag, ResponseCaching.etag(43, UnionStrategy.VARIANT));
+        assertNotEquals(etag, ResponseCaching.etag(42, UnionStrategy.split()));
+        assertNotEquals(etag, ResponseCaching.gzipEtag(etag));
+    }
+
+    @Test
+    void testMatchingEtag() {
+        String etag = ResponseCaching.etag(42, UnionStrategy.VARIANT);
+        String gzipEtag = ResponseCaching.gzipEtag(etag);
+        assertEquals(Optional.empty(), ResponseCaching.matchingEtag(null, etag));
+        assertEquals(Optional.empty(), ResponseCaching.matchingEtag("\"other\"", etag));
+        assertEquals(Optional.of(etag), ResponseCaching.matchingEtag(etag, etag));
+        assertEquals(Optional.of(etag), ResponseCaching.matchingEtag("\"other\", W/" + etag, etag));
+        assertEquals(Optional.of(gzipEtag), ResponseCaching.matchingEtag(gzipEtag, etag));
+        assertEquals(Optional.of(etag), ResponseCaching.matchingEtag("*", etag));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertFalse(ResponseCaching.acceptsGzip(null));
+        assertFalse(ResponseCaching.acceptsGzip("identity"));
+        assertFalse(ResponseCaching.acceptsGzip("br"));
+        assertTrue(ResponseCaching.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseCaching.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(ResponseCaching.acceptsGzip("*"));
+        assertFalse(ResponseCaching.acceptsGzip("gzip;q=0, *"));
+    }
+
+    @Test
+    void testGzip() throws IOException {
+        String body = "{\"response\": \"" + "create table t(a int);".repeat(100) + "\"}";
+        byte[] compressed = ResponseCaching.gzip(body);
+        assertTrue(compressed.length < body.length());
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(body, new String(gzipStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
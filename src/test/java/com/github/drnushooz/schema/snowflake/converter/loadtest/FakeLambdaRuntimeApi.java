@@ -0,0 +1,195 @@
+package com.github.drnushooz.schema.snowflake.converter.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A local stand-in for the Lambda Runtime API which CustomLambdaRuntime polls. Invocations are queued with {@link #invoke(String)}
+ * and handed out to whichever runtime instance calls /runtime/invocation/next first.
+ */
+public class FakeLambdaRuntimeApi implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakeLambdaRuntimeApi.class);
+    private static final String RUNTIME_PATH_PREFIX = "/2018-06-01/runtime/";
+    private static final String FUNCTION_ARN = "arn:aws:lambda:us-east-1:000000000000:function:schema-snowflake-converter";
+
+    private final HttpServer server;
+    private final ExecutorService serverExecutor;
+    private final long invocationTimeoutMillis;
+    private final BlockingQueue<PendingInvocation> pendingInvocations = new LinkedBlockingQueue<>();
+    private final Map<String, PendingInvocation> inFlightInvocations = new ConcurrentHashMap<>();
+
+    @Getter
+    private final AtomicInteger initErrorCount = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    public FakeLambdaRuntimeApi(long invocationTimeoutMillis) throws IOException {
+        this.invocationTimeoutMillis = invocationTimeoutMillis;
+        AtomicInteger threadCounter = new AtomicInteger();
+        // /next is a long poll, so every polling runtime instance holds on to a server thread
+        serverExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fake-runtime-api-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(RUNTIME_PATH_PREFIX, this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+        logger.info("Fake Lambda Runtime API listening on {}", getAddress());
+    }
+
+    /**
+     * Value for AWS_LAMBDA_RUNTIME_API.
+     */
+    public String getAddress() {
+        return server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public CompletableFuture<InvocationResult> invoke(String eventJson) {
+        PendingInvocation invocation = new PendingInvocation(UUID.randomUUID().toString(), eventJson, System.nanoTime());
+        pendingInvocations.add(invocation);
+        return invocation.result;
+    }
+
+    public int getQueuedInvocationCount() {
+        return pendingInvocations.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] pathComponents = exchange.getRequestURI().getPath().substring(RUNTIME_PATH_PREFIX.length()).split("/");
+            String method = exchange.getRequestMethod();
+            if (method.equals("GET") && pathComponents.length == 2 && pathComponents[1].equals("next")) {
+                handleNext(exchange);
+            } else if (method.equals("POST") && pathComponents.length == 3 && pathComponents[0].equals("invocation")) {
+                handleResult(exchange, pathComponents[1], pathComponents[2]);
+            } else if (method.equals("POST") && pathComponents.length == 2 && pathComponents[0].equals("init")) {
+                logger.error("Runtime reported init error: {}", readBody(exchange));
+                initErrorCount.incrementAndGet();
+                exchange.sendResponseHeaders(202, -1);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleNext(HttpExchange exchange) throws IOException, InterruptedException {
+        PendingInvocation invocation = null;
+        while (running && invocation == null) {
+            invocation = pendingInvocations.poll(1, TimeUnit.SECONDS);
+        }
+        if (invocation == null) {
+            exchange.sendResponseHeaders(410, -1);
+            return;
+        }
+
+        invocation.dispatchNanos = System.nanoTime();
+        inFlightInvocations.put(invocation.requestId, invocation);
+        byte[] body = invocation.eventJson.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Lambda-Runtime-Aws-Request-Id", invocation.requestId);
+        exchange.getResponseHeaders()
+            .add("Lambda-Runtime-Deadline-Ms", Long.toString(System.currentTimeMillis() + invocationTimeoutMillis));
+        exchange.getResponseHeaders().add("Lambda-Runtime-Invoked-Function-Arn", FUNCTION_ARN);
+        exchange.getResponseHeaders().add("Lambda-Runtime-Trace-Id", "Root=1-00000000-" + invocation.requestId.replace("-", ""));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseStream = exchange.getResponseBody()) {
+            responseStream.write(body);
+        }
+    }
+
+    private void handleResult(HttpExchange exchange, String requestId, String resultType) throws IOException {
+        String body = readBody(exchange);
+        PendingInvocation invocation = inFlightInvocations.remove(requestId);
+        if (invocation == null || !(resultType.equals("response") || resultType.equals("error"))) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+
+        long completeNanos = System.nanoTime();
+        invocation.result.complete(
+            new InvocationResult(requestId, resultType.equals("error"), body, invocation.enqueueNanos, invocation.dispatchNanos,
+                completeNanos));
+        exchange.sendResponseHeaders(202, -1);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream requestStream = exchange.getRequestBody()) {
+            return new String(requestStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private static class PendingInvocation {
+
+        private final String requestId;
+        private final String eventJson;
+        private final long enqueueNanos;
+        private final CompletableFuture<InvocationResult> result = new CompletableFuture<>();
+        private volatile long dispatchNanos;
+
+        PendingInvocation(String requestId, String eventJson, long enqueueNanos) {
+            this.requestId = requestId;
+            this.eventJson = eventJson;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class InvocationResult {
+
+        private final String requestId;
+        private final boolean error;
+        private final String body;
+        private final long enqueueNanos;
+        private final long dispatchNanos;
+        private final long completeNanos;
+
+        /**
+         * Time from the invocation being queued to its response, including any wait for a free runtime instance.
+         */
+        public long getLatencyNanos() {
+            return completeNanos - enqueueNanos;
+        }
+
+        /**
+         * Time from the runtime instance picking up the invocation to its response.
+         */
+        public long getServiceTimeNanos() {
+            return completeNanos - dispatchNanos;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.drnushooz.schema.snowflake.converter.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects raw latency samples in nanoseconds and reports exact percentiles. Good enough for load test runs of a few million
+ * requests.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int sampleCount;
+
+    public synchronized void record(long latencyNanos) {
+        if (sampleCount == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[sampleCount++] = latencyNanos;
+    }
+
+    public synchronized int getCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Percentile in milliseconds using the nearest-rank method, or 0 when nothing was recorded.
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (sampleCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sampleCount);
+        return sorted[Math.max(0, Math.min(sampleCount, rank) - 1)] / 1_000_000.0;
+    }
+
+    public double maxMillis() {
+        return percentileMillis(100);
+    }
+}
@@ -0,0 +1,387 @@
+package com.github.drnushooz.schema.snowflake.converter.loadtest;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.LambdaRequestHandler;
+import com.github.drnushooz.schema.snowflake.converter.conf.ConverterConfiguration;
+import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.runtime.CustomLambdaRuntime;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Offline load test for the Lambda runtime. Starts a fake Lambda Runtime API and a stub schema registry, runs a pool of runtime
+ * instances against them (in this JVM, or as native binaries with --binary) and drives a weighted request mix at a target rate.
+ *
+ * <p>Options are passed as --name=value:
+ * <ul>
+ *     <li>rate: requests per second, default 50</li>
+ *     <li>duration: measured seconds, default 30</li>
+ *     <li>warmup: seconds before measurement starts, default 5</li>
+ *     <li>concurrency: number of runtime instances, default 4</li>
+ *     <li>mix: weighted request mix, default avro:4,json:3,protobuf:2,registry:1</li>
+ *     <li>burst-interval: seconds between bursts, default 0 (no bursts)</li>
+ *     <li>burst-size: extra requests sent at once on every burst, default 0</li>
+ *     <li>registry-latency-ms: latency injected into the stub registry, default 0</li>
+ *     <li>timeout-ms: invocation deadline handed to the runtime, default 30000</li>
+ *     <li>binary: path of the native runtime binary, runs in-process when absent</li>
+ * </ul>
+ */
+public class LoadTestHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+    private static final ObjectMapper objectMapper = SingletonObjectMapper.getInstance();
+    private static final String REGISTRY_SUBJECT = "loadtest-value";
+
+    private final Map<String, String> options;
+    private final Map<Workload, Integer> workloadMix;
+    private final Map<Workload, String> workloadEvents = new EnumMap<>(Workload.class);
+    private final Map<Workload, LatencyRecorder> latencies = new EnumMap<>(Workload.class);
+    private final Map<Workload, AtomicLong> failures = new EnumMap<>(Workload.class);
+    private final LatencyRecorder overallLatencies = new LatencyRecorder();
+    private final LatencyRecorder serviceTimes = new LatencyRecorder();
+    private final LatencyRecorder gcPauses = new LatencyRecorder();
+    private final AtomicLong inFlightRequests = new AtomicLong();
+    private final AtomicLong peakRssKb = new AtomicLong();
+    private final List<Process> runtimeProcesses = new ArrayList<>();
+
+    private volatile boolean measuring;
+
+    public LoadTestHarness(Map<String, String> options) {
+        this.options = options;
+        this.workloadMix = parseMix(options.getOrDefault("mix", "avro:4,json:3,protobuf:2,registry:1"));
+        for (Workload workload : Workload.values()) {
+            latencies.put(workload, new LatencyRecorder());
+            failures.put(workload, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length == 2 ? option[1] : "true");
+        }
+        new LoadTestHarness(options).run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        int rate = intOption("rate", 50, 1);
+        int durationSeconds = intOption("duration", 30, 1);
+        int warmupSeconds = intOption("warmup", 5, 0);
+        int concurrency = intOption("concurrency", 4, 1);
+        int burstIntervalSeconds = intOption("burst-interval", 0, 0);
+        int burstSize = intOption("burst-size", 0, 0);
+        int registryLatencyMillis = intOption("registry-latency-ms", 0, 0);
+        long timeoutMillis = intOption("timeout-ms", 30000, 1);
+        Optional<String> binaryOpt = Optional.ofNullable(options.get("binary"));
+
+        try (FakeLambdaRuntimeApi runtimeApi = new FakeLambdaRuntimeApi(timeoutMillis);
+            StubSchemaRegistry schemaRegistry = new StubSchemaRegistry()) {
+            schemaRegistry.setInjectedLatencyMillis(registryLatencyMillis);
+            schemaRegistry.register(REGISTRY_SUBJECT, "AVRO", Workload.AVRO.getSchema());
+            for (Workload workload : Workload.values()) {
+                workloadEvents.put(workload, objectMapper.writeValueAsString(workload.toRequestEvent()));
+            }
+
+            if (binaryOpt.isPresent()) {
+                startRuntimeProcesses(binaryOpt.get(), concurrency, runtimeApi, schemaRegistry);
+            } else {
+                startInProcessRuntimes(concurrency, runtimeApi, schemaRegistry);
+                registerGcListeners();
+            }
+
+            ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, r -> {
+                Thread thread = new Thread(r, "load-test-driver");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(() -> sendRequest(runtimeApi), 0, 1_000_000_000L / rate, TimeUnit.NANOSECONDS);
+            if (burstIntervalSeconds > 0 && burstSize > 0) {
+                scheduler.scheduleAtFixedRate(() -> {
+                    for (int i = 0; i < burstSize; i++) {
+                        sendRequest(runtimeApi);
+                    }
+                }, burstIntervalSeconds, burstIntervalSeconds, TimeUnit.SECONDS);
+            }
+            scheduler.scheduleAtFixedRate(this::sampleRss, 0, 500, TimeUnit.MILLISECONDS);
+
+            logger.info("Warming up for {}s at {} req/s with {} runtime instances", warmupSeconds, rate, concurrency);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+            Map<String, long[]> gcBaseline = gcCounters();
+            measuring = true;
+            long measurementStart = System.nanoTime();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+            measuring = false;
+            long measurementNanos = System.nanoTime() - measurementStart;
+            scheduler.shutdownNow();
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+
+            long drainDeadline = System.currentTimeMillis() + timeoutMillis;
+            while (inFlightRequests.get() > 0 && System.currentTimeMillis() < drainDeadline) {
+                Thread.sleep(100);
+            }
+            if (inFlightRequests.get() > 0) {
+                logger.warn("{} invocations still in flight after {} ms", inFlightRequests.get(), timeoutMillis);
+            }
+            report(measurementNanos, gcBaseline, binaryOpt.isPresent());
+        } finally {
+            runtimeProcesses.forEach(Process::destroy);
+        }
+    }
+
+    private void sendRequest(FakeLambdaRuntimeApi runtimeApi) {
+        Workload workload = pickWorkload();
+        boolean measured = measuring;
+        inFlightRequests.incrementAndGet();
+        runtimeApi.invoke(workloadEvents.get(workload)).whenComplete((result, throwable) -> {
+            inFlightRequests.decrementAndGet();
+            if (!measured || throwable != null) {
+                return;
+            }
+            latencies.get(workload).record(result.getLatencyNanos());
+            overallLatencies.record(result.getLatencyNanos());
+            serviceTimes.record(result.getServiceTimeNanos());
+            if (result.isError() || statusCode(result.getBody()) >= 500) {
+                failures.get(workload).incrementAndGet();
+            }
+        });
+    }
+
+    private Workload pickWorkload() {
+        int totalWeight = workloadMix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Workload, Integer> entry : workloadMix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Request mix is empty");
+    }
+
+    private static int statusCode(String responseBody) {
+        try {
+            JsonNode response = objectMapper.readTree(responseBody);
+            return response.path("statusCode").asInt(500);
+        } catch (IOException e) {
+            return 500;
+        }
+    }
+
+    private void startInProcessRuntimes(int concurrency, FakeLambdaRuntimeApi runtimeApi, StubSchemaRegistry schemaRegistry) {
+        System.setProperty("AWS_LAMBDA_RUNTIME_API", runtimeApi.getAddress());
+        System.setProperty("_HANDLER", LambdaRequestHandler.class.getName());
+        System.setProperty(ConverterConfiguration.SCHEMA_REGISTRY_URL_KEY, schemaRegistry.getUrl());
+        for (int i = 0; i < concurrency; i++) {
+            Thread runtimeThread = new Thread(() -> {
+                try {
+                    CustomLambdaRuntime.main(new String[0]);
+                } catch (Exception e) {
+                    logger.error("Runtime instance stopped", e);
+                }
+            }, "runtime-instance-" + i);
+            runtimeThread.setDaemon(true);
+            runtimeThread.start();
+        }
+    }
+
+    private void startRuntimeProcesses(String binary, int concurrency, FakeLambdaRuntimeApi runtimeApi,
+        StubSchemaRegistry schemaRegistry) throws IOException {
+        Path logDirectory = Files.createDirectories(Paths.get("target", "loadtest"));
+        for (int i = 0; i < concurrency; i++) {
+            ProcessBuilder processBuilder = new ProcessBuilder(binary);
+            processBuilder.environment().put("AWS_LAMBDA_RUNTIME_API", runtimeApi.getAddress());
+            processBuilder.environment().put("_HANDLER", LambdaRequestHandler.class.getName());
+            processBuilder.environment().put(ConverterConfiguration.SCHEMA_REGISTRY_URL_KEY, schemaRegistry.getUrl());
+            File logFile = logDirectory.resolve("runtime-" + i + ".log").toFile();
+            processBuilder.redirectErrorStream(true).redirectOutput(logFile);
+            runtimeProcesses.add(processBuilder.start());
+        }
+        logger.info("Started {} runtime processes, output in {}", concurrency, logDirectory.toAbsolutePath());
+    }
+
+    private void registerGcListeners() {
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener((notification, handback) -> {
+                    if (measuring && notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                        GarbageCollectionNotificationInfo gcInfo =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                        gcPauses.record(TimeUnit.MILLISECONDS.toNanos(gcInfo.getGcInfo().getDuration()));
+                    }
+                }, null, null);
+            }
+        }
+    }
+
+    private static Map<String, long[]> gcCounters() {
+        Map<String, long[]> counters = new HashMap<>();
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            counters.put(gcBean.getName(), new long[] {gcBean.getCollectionCount(), gcBean.getCollectionTime()});
+        }
+        return counters;
+    }
+
+    private void sampleRss() {
+        long rssKb = runtimeProcesses.isEmpty()
+            ? readRssKb(ProcessHandle.current().pid())
+            : runtimeProcesses.stream().mapToLong(p -> readRssKb(p.pid())).sum();
+        peakRssKb.accumulateAndGet(rssKb, Math::max);
+    }
+
+    /**
+     * Resident set size from /proc, so only available on Linux.
+     */
+    private static long readRssKb(long pid) {
+        try {
+            return Files.readAllLines(Paths.get("/proc", Long.toString(pid), "status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("[^0-9]", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void report(long measurementNanos, Map<String, long[]> gcBaseline, boolean nativeRuntime) {
+        double measurementSeconds = measurementNanos / 1_000_000_000.0;
+        StringBuilder reportBuilder = new StringBuilder();
+        reportBuilder.append(String.format("%n%-10s %8s %8s %10s %10s %10s %10s %10s%n", "workload", "requests", "failed", "req/s",
+            "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        long overallFailures = 0;
+        for (Workload workload : workloadMix.keySet()) {
+            appendRow(reportBuilder, workload.name().toLowerCase(), latencies.get(workload), failures.get(workload).get(),
+                measurementSeconds);
+            overallFailures += failures.get(workload).get();
+        }
+        appendRow(reportBuilder, "total", overallLatencies, overallFailures, measurementSeconds);
+        reportBuilder.append("(service time excludes waiting for a free runtime instance)\n");
+        appendRow(reportBuilder, "service", serviceTimes, overallFailures, measurementSeconds);
+        reportBuilder.append(String.format("%nPeak RSS: %.1f MiB%n", peakRssKb.get() / 1024.0));
+        if (nativeRuntime) {
+            reportBuilder.append("GC pauses: not available for native runtime processes\n");
+        } else {
+            long collections = 0;
+            long collectionMillis = 0;
+            for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                long[] baseline = gcBaseline.getOrDefault(gcBean.getName(), new long[] {0, 0});
+                collections += gcBean.getCollectionCount() - baseline[0];
+                collectionMillis += gcBean.getCollectionTime() - baseline[1];
+            }
+            reportBuilder.append(String.format("GC: %d collections, %d ms total, p99 pause %.1f ms, max pause %.1f ms%n", collections,
+                collectionMillis, gcPauses.percentileMillis(99), gcPauses.maxMillis()));
+        }
+        logger.info(reportBuilder.toString());
+    }
+
+    private static void appendRow(StringBuilder reportBuilder, String name, LatencyRecorder recorder, long failureCount,
+        double measurementSeconds) {
+        reportBuilder.append(String.format("%-10s %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", name, recorder.getCount(), failureCount,
+            recorder.getCount() / measurementSeconds, recorder.percentileMillis(50), recorder.percentileMillis(95),
+            recorder.percentileMillis(99), recorder.maxMillis()));
+    }
+
+    private int intOption(String name, int defaultValue, int minimumValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsedValue = Integer.parseInt(value.trim());
+            if (parsedValue >= minimumValue) {
+                return parsedValue;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(String.format("--%s must be an integer of at least %d, got %s", name, minimumValue, value));
+    }
+
+    private static Map<Workload, Integer> parseMix(String mix) {
+        Map<Workload, Integer> parsedMix = new EnumMap<>(Workload.class);
+        for (String entry : mix.split(",")) {
+            String[] weightedWorkload = entry.split(":");
+            int weight;
+            try {
+                weight = weightedWorkload.length == 2 ? Integer.parseInt(weightedWorkload[1].trim()) : 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid weight in request mix: " + entry);
+            }
+            if (weight > 0) {
+                parsedMix.put(Workload.valueOf(weightedWorkload[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (parsedMix.isEmpty()) {
+            throw new IllegalArgumentException("Request mix must contain at least one workload: " + mix);
+        }
+        return parsedMix;
+    }
+
+    private enum Workload {
+        AVRO("POST", "/fromavro", "{\"type\": \"record\", \"name\": \"payment\", \"fields\": ["
+            + "{\"name\": \"id\", \"type\": \"string\"},"
+            + "{\"name\": \"amount\", \"type\": \"long\"},"
+            + "{\"name\": \"currency\", \"type\": {\"type\": \"enum\", \"name\": \"currency\", \"symbols\": [\"USD\", \"EUR\"]}},"
+            + "{\"name\": \"created\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-millis\"}},"
+            + "{\"name\": \"note\", \"type\": [\"null\", \"string\"], \"default\": null},"
+            + "{\"name\": \"tags\", \"type\": {\"type\": \"array\", \"items\": \"string\"}}]}"),
+        JSON("POST", "/fromjson", "{\"title\": \"payment\", \"type\": \"object\", \"properties\": {"
+            + "\"id\": {\"type\": \"string\", \"maxLength\": 36},"
+            + "\"amount\": {\"type\": \"integer\"},"
+            + "\"rate\": {\"type\": \"number\"},"
+            + "\"settled\": {\"type\": \"boolean\"},"
+            + "\"tags\": {\"type\": \"array\"}}}"),
+        PROTOBUF("POST", "/fromprotobuf", "message Payment {\n"
+            + "  required string id = 1;\n"
+            + "  required int64 amount = 2;\n"
+            + "  optional double rate = 3;\n"
+            + "  optional bool settled = 4;\n"
+            + "  repeated string tags = 5;\n"
+            + "}"),
+        REGISTRY("GET", "/fromregistry/" + REGISTRY_SUBJECT, null);
+
+        private final String httpMethod;
+        private final String path;
+        private final String schema;
+
+        Workload(String httpMethod, String path, String schema) {
+            this.httpMethod = httpMethod;
+            this.path = path;
+            this.schema = schema;
+        }
+
+        String getSchema() {
+            return schema;
+        }
+
+        APIGatewayProxyRequestEvent toRequestEvent() {
+            return new APIGatewayProxyRequestEvent().withHttpMethod(httpMethod).withPath(path).withBody(schema);
+        }
+    }
+}
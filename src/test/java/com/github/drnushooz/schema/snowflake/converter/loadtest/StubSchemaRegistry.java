@@ -0,0 +1,190 @@
+package com.github.drnushooz.schema.snowflake.converter.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.drnushooz.schema.snowflake.converter.json.SingletonObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A minimal in-memory Confluent schema registry serving the endpoints RegistryClient uses, with injectable latency and failures.
+ */
+public class StubSchemaRegistry implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+
+    private final ObjectMapper objectMapper = SingletonObjectMapper.getInstance();
+    private final HttpServer server;
+    private final ExecutorService serverExecutor;
+    private final Map<String, List<RegisteredSchema>> schemasBySubject = new ConcurrentHashMap<>();
+    private final Map<Integer, RegisteredSchema> schemasById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSchemaId = new AtomicInteger(1);
+
+    @Getter
+    private final AtomicLong requestCount = new AtomicLong();
+
+    @Getter
+    @Setter
+    private volatile long injectedLatencyMillis;
+
+    @Getter
+    @Setter
+    private volatile boolean failing;
+
+    public StubSchemaRegistry() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stub-schema-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    /**
+     * Value for SCHEMA_REGISTRY_URL.
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Register a new version of a schema under a subject and return its id.
+     */
+    public int register(String subject, String schemaType, String schema) {
+        int schemaId = nextSchemaId.getAndIncrement();
+        List<RegisteredSchema> versions = schemasBySubject.computeIfAbsent(subject, s -> new CopyOnWriteArrayList<>());
+        synchronized (versions) {
+            RegisteredSchema registeredSchema = new RegisteredSchema(subject, versions.size() + 1, schemaId, schemaType, schema);
+            versions.add(registeredSchema);
+            schemasById.put(schemaId, registeredSchema);
+        }
+        return schemaId;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            if (injectedLatencyMillis > 0) {
+                Thread.sleep(injectedLatencyMillis);
+            }
+            if (failing) {
+                sendError(exchange, 500, 50001, "Injected failure");
+                return;
+            }
+
+            String[] pathComponents = exchange.getRequestURI().getPath().substring(1).split("/");
+            if (pathComponents.length == 4 && pathComponents[0].equals("subjects") && pathComponents[2].equals("versions")) {
+                handleSubjectVersion(exchange, pathComponents[1], pathComponents[3]);
+            } else if (pathComponents.length == 3 && pathComponents[0].equals("schemas") && pathComponents[1].equals("ids")) {
+                handleSchemaId(exchange, pathComponents[2]);
+            } else {
+                sendError(exchange, 404, 404, "HTTP 404 Not Found");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleSubjectVersion(HttpExchange exchange, String subject, String version) throws IOException {
+        List<RegisteredSchema> versions = schemasBySubject.get(subject);
+        if (versions == null || versions.isEmpty()) {
+            sendError(exchange, 404, 40401, String.format("Subject '%s' not found.", subject));
+            return;
+        }
+
+        int versionIndex = -1;
+        try {
+            versionIndex = version.equals("latest") ? versions.size() : Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            // Rejected below like any other invalid version
+        }
+        if (versionIndex < 1) {
+            // The registry rejects versions which are neither latest nor a positive integer as unprocessable
+            sendError(exchange, 422, 42202, String.format("The specified version '%s' is not a valid version id.", version));
+            return;
+        }
+        if (versionIndex > versions.size()) {
+            sendError(exchange, 404, 40402, String.format("Version %s not found.", version));
+            return;
+        }
+
+        RegisteredSchema registeredSchema = versions.get(versionIndex - 1);
+        sendJson(exchange, 200, ImmutableMap.<String, Object>builder()
+            .put("subject", registeredSchema.getSubject())
+            .put("version", registeredSchema.getVersion())
+            .put("id", registeredSchema.getId())
+            .put("schemaType", registeredSchema.getSchemaType())
+            .put("references", ImmutableList.of())
+            .put("schema", registeredSchema.getSchema())
+            .build());
+    }
+
+    private void handleSchemaId(HttpExchange exchange, String schemaId) throws IOException {
+        RegisteredSchema registeredSchema = null;
+        try {
+            registeredSchema = schemasById.get(Integer.parseInt(schemaId));
+        } catch (NumberFormatException e) {
+            // The registry answers ids which are not integers like unknown ids
+        }
+        if (registeredSchema == null) {
+            sendError(exchange, 404, 40403, String.format("Schema %s not found", schemaId));
+            return;
+        }
+
+        sendJson(exchange, 200, ImmutableMap.of(
+            "schemaType", registeredSchema.getSchemaType(),
+            "references", ImmutableList.of(),
+            "schema", registeredSchema.getSchema()));
+    }
+
+    private void sendError(HttpExchange exchange, int statusCode, int errorCode, String message) throws IOException {
+        sendJson(exchange, statusCode, ImmutableMap.of("error_code", errorCode, "message", message));
+    }
+
+    private void sendJson(HttpExchange exchange, int statusCode, Map<String, Object> body) throws IOException {
+        byte[] responseBytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        try (OutputStream responseStream = exchange.getResponseBody()) {
+            responseStream.write(responseBytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @AllArgsConstructor
+    @Getter
+    private static class RegisteredSchema {
+
+        private final String subject;
+        private final int version;
+        private final int id;
+        private final String schemaType;
+        private final String schema;
+    }
+}
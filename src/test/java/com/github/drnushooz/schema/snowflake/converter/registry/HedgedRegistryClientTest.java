@@ -0,0 +1,132 @@
+package com.github.drnushooz.schema.snowflake.converter.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.drnushooz.schema.snowflake.converter.admission.Bulkhead;
+import com.github.drnushooz.schema.snowflake.converter.admission.Deadline;
+import com.github.drnushooz.schema.snowflake.converter.admission.DeadlineExceededException;
+import com.github.drnushooz.schema.snowflake.converter.loadtest.StubSchemaRegistry;
+import com.google.common.collect.ImmutableList;
+import io.confluent.kafka.schemaregistry.client.rest.entities.Schema;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HedgedRegistryClientTest {
+
+    private static final String SUBJECT = "payment-value";
+    private static final String AVRO_SCHEMA = "{\"type\": \"record\", \"name\": \"payment\", \"fields\": "
+        + "[{\"name\": \"id\", \"type\": \"string\"}]}";
+
+    private StubSchemaRegistry primaryRegistry;
+    private StubSchemaRegistry secondaryRegistry;
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void startRegistries() throws Exception {
+        primaryRegistry = new StubSchemaRegistry();
+        secondaryRegistry = new StubSchemaRegistry();
+        primaryRegistry.register(SUBJECT, "AVRO", AVRO_SCHEMA);
+        secondaryRegistry.register(SUBJECT, "AVRO", AVRO_SCHEMA);
+        bulkhead = new Bulkhead("schema registry", 4, 8, 250, 503, 1);
+    }
+
+    @AfterEach
+    void stopRegistries() {
+        primaryRegistry.close();
+        secondaryRegistry.close();
+    }
+
+    private HedgedRegistryClient newClient(int failureThreshold) {
+        return new HedgedRegistryClient(ImmutableList.of(
+            new RegistryEndpoint(primaryRegistry.getUrl(), 10, failureThreshold, 60000, 1000, 5000),
+            new RegistryEndpoint(secondaryRegistry.getUrl(), 10, failureThreshold, 60000, 1000, 5000)), bulkhead, 95, 50);
+    }
+
+    private static Schema latest(HedgedRegistryClient client) throws Exception {
+        return client.execute(endpoint -> endpoint.getClient().getByVersion(SUBJECT, 1, false), Deadline.NONE);
+    }
+
+    @Test
+    void testHedgesSlowEndpoint() throws Exception {
+        primaryRegistry.setInjectedLatencyMillis(2000);
+        HedgedRegistryClient client = newClient(5);
+
+        long startNanos = System.nanoTime();
+        Schema schema = latest(client);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertEquals(AVRO_SCHEMA, schema.getSchema());
+        assertTrue(elapsedMillis < 1000, "Hedged call took " + elapsedMillis + " ms");
+        assertEquals(1, secondaryRegistry.getRequestCount().get());
+    }
+
+    @Test
+    void testFailsOverAndOpensCircuit() throws Exception {
+        primaryRegistry.setFailing(true);
+        HedgedRegistryClient client = newClient(2);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(AVRO_SCHEMA, latest(client).getSchema());
+        }
+        assertEquals(2, primaryRegistry.getRequestCount().get());
+        assertEquals(4, secondaryRegistry.getRequestCount().get());
+    }
+
+    @Test
+    void testClientErrorsAreNotRetried() {
+        HedgedRegistryClient client = newClient(5);
+
+        RestClientException e = assertThrows(RestClientException.class,
+            () -> client.execute(endpoint -> endpoint.getClient().getByVersion("unknown-value", 1, false), Deadline.NONE));
+        assertEquals(404, e.getStatus());
+        assertEquals(0, secondaryRegistry.getRequestCount().get());
+    }
+
+    @Test
+    void testGivesUpAtDeadline() {
+        primaryRegistry.setInjectedLatencyMillis(2000);
+        secondaryRegistry.setInjectedLatencyMillis(2000);
+        HedgedRegistryClient client = newClient(5);
+
+        long startNanos = System.nanoTime();
+        assertThrows(DeadlineExceededException.class,
+            () -> client.execute(endpoint -> endpoint.getClient().getByVersion(SUBJECT, 1, false), Deadline.after(300)));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        assertTrue(elapsedMillis < 1000, "Call past its deadline took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testLosingAttemptHoldsPermitUntilItReturns() throws Exception {
+        primaryRegistry.setInjectedLatencyMillis(1000);
+        HedgedRegistryClient client = newClient(5);
+
+        assertEquals(AVRO_SCHEMA, latest(client).getSchema());
+        // The slow primary attempt is still blocked in its call
+        assertTrue(bulkhead.getAvailablePermits() <= 3);
+
+        long waitDeadlineMillis = System.currentTimeMillis() + 5000;
+        while (bulkhead.getAvailablePermits() < 4 && System.currentTimeMillis() < waitDeadlineMillis) {
+            Thread.sleep(50);
+        }
+        assertEquals(4, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    void testOpenCircuitLetsOneTrialCallThrough() {
+        RegistryEndpoint endpoint = new RegistryEndpoint(primaryRegistry.getUrl(), 10, 1, 0, 1000, 5000);
+        endpoint.recordFailure();
+
+        assertTrue(endpoint.tryAcquireCall());
+        assertFalse(endpoint.isAvailable());
+        assertFalse(endpoint.tryAcquireCall());
+        endpoint.recordSuccess(10);
+        assertTrue(endpoint.tryAcquireCall());
+        assertTrue(endpoint.tryAcquireCall());
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.drnushooz.schema.snowflake.converter.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+public class WireFormatTest {
+
+    @Test
+    void testExtractSchemaId() {
+        byte[] message = {0, 0, 0, 1, 2, 42, 42, 42, 42};
+        assertEquals(258, WireFormat.extractSchemaId(message));
+        assertEquals(258, WireFormat.extractSchemaId(Base64.getEncoder().encodeToString(message)));
+        assertEquals(7, WireFormat.extractSchemaId(Base64.getEncoder().encodeToString(new byte[] {0, 0, 0, 0, 7})));
+    }
+
+    @Test
+    void testExtractSchemaIdFromUrlSafeBase64() {
+        byte[] message = {0, 0, (byte) 0xfb, (byte) 0xff, (byte) 0xbf};
+        assertEquals(16515007, WireFormat.extractSchemaId(Base64.getEncoder().encodeToString(message)));
+        assertEquals(16515007, WireFormat.extractSchemaId(Base64.getUrlEncoder().withoutPadding().encodeToString(message)));
+    }
+
+    @Test
+    void testRejectsInvalidHeader() {
+        assertThrows(IllegalArgumentException.class, () -> WireFormat.extractSchemaId(new byte[] {1, 0, 0, 0, 7}));
+        assertThrows(IllegalArgumentException.class, () -> WireFormat.extractSchemaId(new byte[] {0, 0, 0}));
+    }
+}